@@ -0,0 +1,195 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.javactic.Bad;
+import com.github.javactic.Every;
+import com.github.javactic.Good;
+import com.github.javactic.Or;
+import io.vavr.collection.Vector;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collector;
+
+/**
+ * A future completed with the results of several futures, fed to a collector as they arrive
+ * rather than in a pass over all of them at the end. Each input future is forgotten once it
+ * completes.
+ * <p>
+ * With a concurrent and unordered collector, Goods are accumulated right away by the thread that
+ * delivers them. Otherwise results wait in the slot of their index until the ones before them
+ * arrived, and are then collected in input order by whichever thread drains, so that after the
+ * last completion only the results still waiting for it remain to be collected.
+ * <p>
+ * Failing fast, the first Bad to arrive completes this future and releases the futures still
+ * pending. Otherwise every Bad is accumulated, in input order.
+ *
+ * @param <G> the success type of the futures
+ * @param <ERR> the error type of the futures
+ * @param <A> the mutable accumulation type of the collector
+ * @param <I> the result type of the collector
+ */
+final class Aggregation<G, ERR, A, I extends Iterable<? extends G>> extends OrFutureImpl<I, Every<ERR>> {
+
+  private final Collector<? super G, A, I> collector;
+  private final boolean failFast;
+  private final boolean concurrent;
+  private final AtomicReferenceArray<OrFuture<? extends G, ? extends Every<? extends ERR>>> pending;
+  private final AtomicReferenceArray<Or<? extends G, ? extends Every<? extends ERR>>> results;
+  private final AtomicInteger remaining;
+  private final AtomicInteger wip = new AtomicInteger();
+  private final A goods;
+  private volatile boolean failed;
+  // only touched by the draining thread
+  private Vector<ERR> bads = Vector.empty();
+  private int collected;
+
+  private Aggregation(ExecutionContext<?> executionContext,
+                      ArrayList<OrFuture<? extends G, ? extends Every<? extends ERR>>> input,
+                      Collector<? super G, A, I> collector, boolean failFast) {
+    super(executionContext);
+    this.collector = collector;
+    this.failFast = failFast;
+    this.concurrent = collector.characteristics().contains(Collector.Characteristics.CONCURRENT)
+      && collector.characteristics().contains(Collector.Characteristics.UNORDERED);
+    int size = input.size();
+    this.pending = new AtomicReferenceArray<>(size);
+    for (int i = 0; i < size; i++) pending.set(i, input.get(i));
+    this.results = new AtomicReferenceArray<>(size);
+    this.remaining = new AtomicInteger(size);
+    this.goods = collector.supplier().get();
+  }
+
+  /**
+   * @param input the futures to aggregate, iterated once
+   * @return a future completed with the aggregated results of the given futures
+   */
+  static <G, ERR, A, I extends Iterable<? extends G>> OrFuture<I, Every<ERR>>
+  of(ExecutionContext<?> executionContext, Iterable<? extends OrFuture<? extends G, ? extends Every<? extends ERR>>> input,
+     Collector<? super G, A, I> collector, boolean failFast) {
+    ArrayList<OrFuture<? extends G, ? extends Every<? extends ERR>>> futures = new ArrayList<>();
+    for (OrFuture<? extends G, ? extends Every<? extends ERR>> future : input) futures.add(future);
+    Aggregation<G, ERR, A, I> aggregation = new Aggregation<>(executionContext, futures, collector, failFast);
+    aggregation.start(futures);
+    return aggregation;
+  }
+
+  private void start(ArrayList<OrFuture<? extends G, ? extends Every<? extends ERR>>> futures) {
+    if (futures.isEmpty()) {
+      complete(Good.of(collector.finisher().apply(goods)));
+      return;
+    }
+    for (int i = 0; i < futures.size(); i++) {
+      int index = i;
+      OrFutureImpl.onComplete(futures.get(i), this, or -> arrived(index, or));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void arrived(int index, Or<? extends G, ? extends Every<? extends ERR>> or) {
+    pending.set(index, null);
+    if (or.isBad()) {
+      if (failFast) {
+        Vector<ERR> errors = Vector.<ERR>empty().appendAll(or.getBad());
+        if (tryComplete(Bad.of(Every.of(errors.head(), errors.tail())))) releasePending();
+        return;
+      }
+      failed = true;
+    }
+    if (concurrent && or.isGood()) {
+      // the result is a Bad anyway once one arrived
+      if (!failed) collector.accumulator().accept(goods, or.get());
+      if (remaining.decrementAndGet() == 0) finish();
+    } else {
+      results.set(index, or);
+      // published by the decrement for the concurrent finish
+      remaining.decrementAndGet();
+      drain();
+    }
+  }
+
+  /**
+   * Completes a concurrent aggregation once every result arrived.
+   */
+  private void finish() {
+    if (failed) drain();
+    else complete(Good.of(collector.finisher().apply(goods)));
+  }
+
+  /**
+   * Collects the results waiting in input order. Only one thread drains at a time, the others
+   * leave a mark so that the draining thread goes round once more.
+   */
+  private void drain() {
+    if (wip.getAndIncrement() != 0) return;
+    int missed = 1;
+    do {
+      if (!isCompleted()) {
+        try {
+          step();
+        } catch (Throwable t) {
+          // same outcome as a throwing transformation
+          releasePending();
+          handleUncaughtThrowable(t);
+        }
+      }
+      missed = wip.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  private void step() {
+    int size = results.length();
+    while (collected < size) {
+      Or<? extends G, ? extends Every<? extends ERR>> or = results.get(collected);
+      if (or == null) {
+        // a concurrent aggregation keeps no slot for its Goods, they are all in once nothing remains
+        if (!concurrent || remaining.get() != 0) break;
+      } else {
+        results.set(collected, null);
+        if (or.isBad()) bads = bads.appendAll(or.getBad());
+        else if (bads.isEmpty() && !concurrent) collector.accumulator().accept(goods, or.get());
+      }
+      collected++;
+    }
+    if (collected < size) return;
+    if (bads.isEmpty()) complete(Good.of(collector.finisher().apply(goods)));
+    else complete(Bad.of(Every.of(bads.head(), bads.tail())));
+  }
+
+  private void releasePending() {
+    for (int i = 0; i < pending.length(); i++) {
+      OrFuture<?, ?> future = pending.get(i);
+      if (future != null) release(future);
+    }
+  }
+
+  @Override
+  void cancelled() {
+    releasePending();
+  }
+
+  @Override
+  void abandoned() {
+    releasePending();
+  }
+}
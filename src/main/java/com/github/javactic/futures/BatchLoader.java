@@ -0,0 +1,161 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.javactic.Bad;
+import com.github.javactic.Every;
+import com.github.javactic.Good;
+import com.github.javactic.One;
+import com.github.javactic.Or;
+import io.vavr.CheckedFunction1;
+import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
+import io.vavr.collection.Vector;
+import io.vavr.control.Option;
+
+import java.util.LinkedHashMap;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Coalesces the keys requested one at a time into calls to a batch function. The first key of a
+ * batch opens a window; the keys requested until the window closes, or until the batch is full,
+ * are handed to a single call of the batch function, which runs as a task of the context. Its
+ * results are then fanned out to the futures of each key. A key requested twice in the same
+ * batch is loaded once and both requests share its future.
+ * <p>
+ * A key missing from the results of the batch function completes with the converted
+ * {@link NoSuchElementException}; an exception thrown by the batch function completes every key
+ * of the batch with its conversion. Cancelling the future of a key does not cancel its batch.
+ * <p>
+ * Create instances with {@link ExecutionContext#batchLoader(CheckedFunction1, int, java.time.Duration)}.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @param <B> the failure type of the context
+ */
+public final class BatchLoader<K, V, B> {
+
+  private final ExecutionContext<B> context;
+  private final CheckedFunction1<? super Seq<K>, ? extends Map<? super K, ? extends Or<? extends V, ? extends Every<? extends B>>>> batchFunction;
+  private final int maxBatchSize;
+  private final long window;
+  private final AtomicReference<Batch<K, V, B>> current = new AtomicReference<>();
+
+  BatchLoader(ExecutionContext<B> context,
+              CheckedFunction1<? super Seq<K>, ? extends Map<? super K, ? extends Or<? extends V, ? extends Every<? extends B>>>> batchFunction,
+              int maxBatchSize, long window) {
+    if (maxBatchSize <= 0) throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+    this.context = context;
+    this.batchFunction = batchFunction;
+    this.maxBatchSize = maxBatchSize;
+    this.window = window;
+  }
+
+  /**
+   * Requests the value of the given key, which is loaded with the next batch.
+   *
+   * @param key the key
+   * @return the future of the value of the key
+   */
+  public OrFuture<V, Every<B>> load(K key) {
+    for (;;) {
+      Batch<K, V, B> batch = current.get();
+      if (batch == null) {
+        batch = new Batch<>();
+        if (!current.compareAndSet(null, batch)) continue;
+        Batch<K, V, B> opened = batch;
+        batch.timeout = context.timeout(() -> dispatch(opened), window);
+      }
+      OrFutureImpl<V, Every<B>> future = batch.add(key, context, maxBatchSize);
+      // closed by another thread, try the next batch
+      if (future == null) continue;
+      if (batch.size() >= maxBatchSize) dispatch(batch);
+      return future;
+    }
+  }
+
+  /**
+   * Dispatches the keys collected so far without waiting for the window to close.
+   */
+  public void flush() {
+    Batch<K, V, B> batch = current.get();
+    if (batch != null) dispatch(batch);
+  }
+
+  private void dispatch(Batch<K, V, B> batch) {
+    if (!current.compareAndSet(batch, null)) return;
+    TimerWheel.Timeout timeout = batch.timeout;
+    if (timeout != null) timeout.cancel();
+    LinkedHashMap<K, OrFutureImpl<V, Every<B>>> pending = batch.close();
+    Seq<K> keys = Vector.ofAll(pending.keySet());
+    context.future(() -> Good.<Map<? super K, ? extends Or<? extends V, ? extends Every<? extends B>>>, B>of(batchFunction.apply(keys)))
+      .onComplete(or -> {
+        if (or.isBad()) {
+          Or<V, Every<B>> bad = Bad.of(One.of(or.getBad()));
+          pending.values().forEach(future -> future.complete(bad));
+        } else {
+          Map<? super K, ? extends Or<? extends V, ? extends Every<? extends B>>> results = or.get();
+          pending.forEach((key, future) -> future.complete(resultOf(key, results)));
+        }
+      });
+  }
+
+  private Or<V, Every<B>> resultOf(K key, Map<? super K, ? extends Or<? extends V, ? extends Every<? extends B>>> results) {
+    Option<? extends Or<? extends V, ? extends Every<? extends B>>> result = results.get(key);
+    if (result.isEmpty()) {
+      return Bad.of(One.of(context.convert(new NoSuchElementException("no result for key " + key))));
+    }
+    Or<? extends V, ? extends Every<? extends B>> or = result.get();
+    if (or.isGood()) return Good.of(or.get());
+    Vector<B> errors = Vector.<B>empty().appendAll(or.getBad());
+    return Bad.of(Every.of(errors.head(), errors.tail()));
+  }
+
+  private static final class Batch<K, V, B> {
+    private final LinkedHashMap<K, OrFutureImpl<V, Every<B>>> futures = new LinkedHashMap<>();
+    private boolean closed;
+    volatile TimerWheel.Timeout timeout;
+
+    /**
+     * @return the future of the key, or null if this batch is closed or full
+     */
+    synchronized OrFutureImpl<V, Every<B>> add(K key, ExecutionContext<B> context, int maxBatchSize) {
+      if (closed) return null;
+      OrFutureImpl<V, Every<B>> future = futures.get(key);
+      if (future == null) {
+        if (futures.size() >= maxBatchSize) return null;
+        future = new OrFutureImpl<>(context);
+        futures.put(key, future);
+      }
+      return future;
+    }
+
+    synchronized int size() {
+      return futures.size();
+    }
+
+    synchronized LinkedHashMap<K, OrFutureImpl<V, Every<B>>> close() {
+      closed = true;
+      return futures;
+    }
+  }
+}
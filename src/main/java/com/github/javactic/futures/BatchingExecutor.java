@@ -0,0 +1,177 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+/**
+ * An executor that groups the tasks submitted while one of its tasks is running into the
+ * batch of that task, instead of handing every one of them to the underlying executor. The
+ * batch is drained in a loop on the thread that runs it, which keeps arbitrarily long chains
+ * of callbacks stack-safe.
+ * <p>
+ * A task that blocks holds up the rest of its batch, so batching executors are meant for
+ * short, non-blocking callbacks. Work that may run for long, such as the tasks of
+ * {@link ExecutionContext#future}, is handed over with {@link #fork(Runnable)} instead, so that
+ * tasks forked from a callback still run in parallel.
+ */
+abstract class BatchingExecutor implements Executor {
+
+  private static final ThreadLocal<Batch> CURRENT = new ThreadLocal<>();
+
+  private static final BatchingExecutor SAME_THREAD = new BatchingExecutor() {
+    @Override
+    void submit(Batch batch) {
+      batch.run();
+    }
+
+    @Override
+    void fork(Runnable task) {
+      // nothing runs in parallel on the submitting thread, trampoline as usual
+      execute(task);
+    }
+
+    @Override
+    <S> BatchingExecutor propagating(ContextPropagator<S> propagator) {
+      // batches run on the submitting thread, with its state already in place
+      return this;
+    }
+  };
+
+  /**
+   * @return an executor running tasks on the submitting thread, trampolining the nested ones
+   */
+  static BatchingExecutor sameThread() {
+    return SAME_THREAD;
+  }
+
+  /**
+   * @param executor the executor running the batches
+   * @return an executor running every task submitted from within a batch as part of that batch,
+   * handing only new batches to the given executor
+   */
+  static BatchingExecutor on(Executor executor) {
+    return new BatchingExecutor() {
+      @Override
+      void submit(Batch batch) {
+        executor.execute(batch);
+      }
+
+      @Override
+      void fork(Runnable task) {
+        executor.execute(task);
+      }
+
+      @Override
+      <S> BatchingExecutor propagating(ContextPropagator<S> propagator) {
+        return on(new PropagatingExecutor<>(executor, propagator));
+      }
+    };
+  }
+
+  /**
+   * Starts running a new batch.
+   *
+   * @param batch the batch to run
+   */
+  abstract void submit(Batch batch);
+
+  /**
+   * Runs the given task outside of any batch, on the underlying executor.
+   *
+   * @param task the task to run
+   */
+  abstract void fork(Runnable task);
+
+  /**
+   * Returns an executor batching like this one, which carries the state of the given propagator
+   * over to the batches it starts. The tasks joining a running batch already run with that state,
+   * so it is restored once per batch rather than once per task.
+   *
+   * @param propagator the propagator of the state
+   * @return a new executor
+   */
+  abstract <S> BatchingExecutor propagating(ContextPropagator<S> propagator);
+
+  @Override
+  public void execute(Runnable task) {
+    Batch batch = CURRENT.get();
+    if (batch != null && batch.owner == this) batch.tasks.addLast(task);
+    else {
+      Batch fresh = new Batch(this);
+      fresh.tasks.addLast(task);
+      submit(fresh);
+    }
+  }
+
+  /**
+   * Runs the given action on the calling thread, collecting every task it submits to this
+   * executor into a single batch.
+   *
+   * @param action the action submitting tasks
+   */
+  void executeAll(Runnable action) {
+    Batch current = CURRENT.get();
+    if (current != null && current.owner == this) {
+      action.run();
+      return;
+    }
+    Batch collecting = new Batch(this);
+    CURRENT.set(collecting);
+    try {
+      action.run();
+    } finally {
+      if (current == null) CURRENT.remove();
+      else CURRENT.set(current);
+    }
+    if (!collecting.tasks.isEmpty()) submit(collecting);
+  }
+
+  static final class Batch implements Runnable {
+    private final BatchingExecutor owner;
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>(4);
+
+    private Batch(BatchingExecutor owner) {
+      this.owner = owner;
+    }
+
+    @Override
+    public void run() {
+      Batch outer = CURRENT.get();
+      CURRENT.set(this);
+      try {
+        Runnable task;
+        while ((task = tasks.pollFirst()) != null) {
+          try {
+            task.run();
+          } catch (Throwable t) {
+            OrFutureImpl.handleUncaughtThrowable(t);
+          }
+        }
+      } finally {
+        if (outer == null) CURRENT.remove();
+        else CURRENT.set(outer);
+      }
+    }
+  }
+}
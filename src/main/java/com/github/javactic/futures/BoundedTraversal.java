@@ -0,0 +1,156 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.javactic.Bad;
+import com.github.javactic.Every;
+import com.github.javactic.Good;
+import com.github.javactic.Or;
+import io.vavr.collection.Vector;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collector;
+
+/**
+ * A future collecting the results of futures pulled one by one from an iterator, with at most a given
+ * number of them pulled but not collected yet. Results are collected in the order of the iterator,
+ * so a slow future holds up the collection of the ones after it, and the pulling of new ones once
+ * the window is full. Only the window is kept in memory, apart from what the collector retains.
+ * <p>
+ * Failing fast, the first Bad to arrive completes this future and releases the futures in flight.
+ * Otherwise every Bad is accumulated and the whole input is consumed.
+ *
+ * @param <G> the success type of the futures
+ * @param <ERR> the error type of the futures
+ * @param <A> the mutable accumulation type of the collector
+ * @param <I> the result type of the collector
+ */
+final class BoundedTraversal<G, ERR, A, I extends Iterable<? extends G>> extends OrFutureImpl<I, Every<ERR>> {
+
+  private final Iterator<? extends OrFuture<? extends G, ? extends Every<? extends ERR>>> input;
+  private final Collector<? super G, A, I> collector;
+  private final boolean failFast;
+  private final int parallelism;
+  // slot of the index modulo parallelism, reused only once the previous occupant got collected
+  private final AtomicReferenceArray<OrFuture<?, ?>> inFlight;
+  private final AtomicReferenceArray<Or<? extends G, ? extends Every<? extends ERR>>> results;
+  private final AtomicInteger wip = new AtomicInteger();
+  private volatile boolean stopped;
+  private volatile Every<? extends ERR> failure;
+  // only touched by the draining thread
+  private final A goods;
+  private Vector<ERR> bads = Vector.empty();
+  private long pulled;
+  private long collected;
+
+  BoundedTraversal(ExecutionContext<?> executionContext,
+                   Iterator<? extends OrFuture<? extends G, ? extends Every<? extends ERR>>> input,
+                   int parallelism, Collector<? super G, A, I> collector, boolean failFast) {
+    super(executionContext);
+    this.input = input;
+    this.collector = collector;
+    this.failFast = failFast;
+    this.parallelism = parallelism;
+    this.inFlight = new AtomicReferenceArray<>(parallelism);
+    this.results = new AtomicReferenceArray<>(parallelism);
+    this.goods = collector.supplier().get();
+  }
+
+  /**
+   * Collects what is ready and pulls new futures while there is room. Only one thread drains at a
+   * time, the others leave a mark so that the draining thread goes round once more.
+   */
+  void drain() {
+    if (wip.getAndIncrement() != 0) return;
+    int missed = 1;
+    do {
+      if (!stopped && !isCompleted()) {
+        try {
+          step();
+        } catch (Throwable t) {
+          // same outcome as a throwing transformation
+          stopped = true;
+          releaseInFlight();
+          handleUncaughtThrowable(t);
+        }
+      }
+      missed = wip.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  private void step() {
+    if (failure != null) {
+      Vector<ERR> errors = Vector.<ERR>empty().appendAll(failure);
+      complete(Bad.of(Every.of(errors.head(), errors.tail())));
+      releaseInFlight();
+      return;
+    }
+    while (collected < pulled) {
+      int slot = (int) (collected % parallelism);
+      Or<? extends G, ? extends Every<? extends ERR>> or = results.get(slot);
+      if (or == null) break;
+      results.set(slot, null);
+      inFlight.set(slot, null);
+      collected++;
+      if (or.isBad()) {
+        bads = bads.appendAll(or.getBad());
+      } else if (bads.isEmpty()) {
+        collector.accumulator().accept(goods, or.get());
+      }
+    }
+    while (pulled - collected < parallelism && input.hasNext()) {
+      OrFuture<? extends G, ? extends Every<? extends ERR>> future = input.next();
+      int slot = (int) (pulled++ % parallelism);
+      inFlight.set(slot, future);
+      OrFutureImpl.onComplete(future, this, or -> {
+        if (failFast && or.isBad()) failure = or.getBad();
+        results.set(slot, or);
+        drain();
+      });
+    }
+    if (collected == pulled && !input.hasNext()) {
+      if (bads.isEmpty()) complete(Good.of(collector.finisher().apply(goods)));
+      else complete(Bad.of(Every.of(bads.head(), bads.tail())));
+    }
+  }
+
+  private void releaseInFlight() {
+    for (int i = 0; i < parallelism; i++) {
+      OrFuture<?, ?> future = inFlight.get(i);
+      if (future != null) release(future);
+    }
+  }
+
+  @Override
+  void cancelled() {
+    stopped = true;
+    releaseInFlight();
+  }
+
+  @Override
+  void abandoned() {
+    // nothing is interested in the outcome, which stays pending like that of any other aggregation
+    stopped = true;
+    releaseInFlight();
+  }
+}
@@ -0,0 +1,71 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import com.github.javactic.Or;
+import com.github.javactic.Validation;
+
+import java.util.function.Function;
+
+/**
+ * A future whose value is known from the start. Synchronous transformations are applied right
+ * away on the calling thread and give other completed futures, without going through the
+ * executor. Callbacks registered with onComplete or andThen still run on the executor, and so do
+ * flatMap and the other future returning functions, which keeps recursive loops stack-safe.
+ */
+final class CompletedOrFuture<G, B> extends OrFutureImpl<G, B> {
+
+  CompletedOrFuture(ExecutionContext<?> executionContext, Or<G, B> value, boolean contextBad) {
+    super(executionContext, value, contextBad);
+  }
+
+  @Override
+  public OrFuture<G, B> filter(Function<? super G, ? extends Validation<? extends B>> validator) {
+    return eager(contextBad, or -> or.filter(validator));
+  }
+
+  @Override
+  public <H> OrFuture<H, B> map(Function<? super G, ? extends H> mapper) {
+    return eager(contextBad, or -> or.map(mapper));
+  }
+
+  @Override
+  public OrFuture<G, B> recover(Function<? super B, ? extends G> fn) {
+    return eager(contextBad, or -> or.recover(fn));
+  }
+
+  @Override
+  public <H, C> OrFuture<H, C> transform(Function<? super Or<? extends G, ? extends B>, ? extends Or<? extends H, ? extends C>> f) {
+    return eager(false, f);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <H, C> OrFuture<H, C> eager(boolean contextBad, Function<? super Or<G, B>, ? extends Or<? extends H, ? extends C>> f) {
+    try {
+      return new CompletedOrFuture<>(executionContext, (Or<H, C>) f.apply(value()), contextBad);
+    } catch (Throwable t) {
+      // same outcome as a throwing transformation of a pending future
+      handleUncaughtThrowable(t);
+      return new OrFutureImpl<>(executionContext, contextBad);
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.javactic.Or;
+import io.vavr.Tuple;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the results of futures in the order they complete. Each subscription iterates the
+ * futures anew and only takes the next one from the iterator while fewer futures are in flight
+ * than the subscriber has requested results, so a lazy iterable starts work as demand comes in.
+ *
+ * @param <G> the success type
+ * @param <B> the failure type
+ */
+final class CompletionOrderPublisher<G, B> implements Publisher<Or<G, B>> {
+
+  private final ExecutionContext<?> executionContext;
+  private final Iterable<? extends OrFuture<? extends G, ? extends B>> futures;
+
+  CompletionOrderPublisher(ExecutionContext<?> executionContext, Iterable<? extends OrFuture<? extends G, ? extends B>> futures) {
+    this.executionContext = executionContext;
+    this.futures = futures;
+  }
+
+  @Override
+  public void subscribe(Subscriber<? super Or<G, B>> subscriber) {
+    if (subscriber == null) throw new NullPointerException("subscriber is null");
+    CompletionOrderSubscription subscription = new CompletionOrderSubscription(subscriber);
+    subscriber.onSubscribe(subscription);
+    subscription.drain();
+  }
+
+  private final class CompletionOrderSubscription implements Subscription {
+
+    private final Subscriber<? super Or<G, B>> subscriber;
+    private final Queue<Or<G, B>> ready = new ConcurrentLinkedQueue<>();
+    private final Set<OrFuture<?, ?>> pending = ConcurrentHashMap.newKeySet();
+    // completed once the subscription is over, so that the pending futures are not needed anymore
+    private final OrFutureImpl<Object, Object> done = new OrFutureImpl<>(executionContext);
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    // only touched by the draining thread
+    private Iterator<? extends OrFuture<? extends G, ? extends B>> iterator;
+    private long emitted;
+    private long taken;
+    private volatile Throwable error;
+
+    CompletionOrderSubscription(Subscriber<? super Or<G, B>> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) error = new IllegalArgumentException("requested " + n + " elements, the number must be positive");
+      else requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      terminate();
+    }
+
+    private void terminate() {
+      if (done.complete(Or.good(Tuple.empty()))) pending.forEach(OrFutureImpl::release);
+    }
+
+    /**
+     * Emits what is ready and takes new futures while there is demand. Only one thread drains at
+     * a time, the others leave a mark so that the draining thread goes round once more.
+     */
+    void drain() {
+      if (wip.getAndIncrement() != 0) return;
+      int missed = 1;
+      do {
+        if (done.isCompleted()) {
+          ready.clear();
+        } else if (error != null) {
+          terminate();
+          subscriber.onError(error);
+        } else {
+          try {
+            step();
+          } catch (Throwable t) {
+            terminate();
+            subscriber.onError(t);
+          }
+        }
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void step() {
+      long demand = requested.get();
+      Or<G, B> next;
+      while (emitted < demand && !done.isCompleted() && (next = ready.poll()) != null) {
+        emitted++;
+        subscriber.onNext(next);
+      }
+      if (iterator == null) iterator = futures.iterator();
+      // futures taken but not emitted yet are either running or ready, and each has demand
+      while (taken < demand && !done.isCompleted() && iterator.hasNext()) {
+        take(iterator.next());
+      }
+      if (taken == emitted && !iterator.hasNext() && !done.isCompleted()) {
+        terminate();
+        subscriber.onComplete();
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void take(OrFuture<? extends G, ? extends B> future) {
+      taken++;
+      pending.add(future);
+      OrFutureImpl.onComplete((OrFuture<G, B>) future, done, or -> {
+        pending.remove(future);
+        ready.offer(or);
+        drain();
+      });
+    }
+  }
+}
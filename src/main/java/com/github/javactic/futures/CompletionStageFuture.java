@@ -0,0 +1,74 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.javactic.Bad;
+import com.github.javactic.Good;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * A future completed by a CompletionStage. It completes on the thread completing the stage,
+ * without any dispatch on an executor. Cancelling it cancels the stage if the stage is a
+ * {@link Future}, such as a CompletableFuture.
+ *
+ * @param <G> the success type
+ * @param <B> the failure type, which is the one of the context
+ */
+final class CompletionStageFuture<G, B> extends OrFutureImpl<G, B> {
+
+  private final CompletionStage<? extends G> stage;
+  private final Function<? super Throwable, ? extends B> converter;
+
+  CompletionStageFuture(ExecutionContext<B> context, CompletionStage<? extends G> stage,
+                        Function<? super Throwable, ? extends B> converter) {
+    super(context, true);
+    this.stage = stage;
+    this.converter = converter;
+    watch();
+  }
+
+  void link() {
+    stage.whenComplete((value, throwable) -> {
+      if (throwable == null) tryComplete(Good.of(value));
+      else tryComplete(Bad.of(converter.apply(unwrap(throwable))));
+    });
+  }
+
+  private static Throwable unwrap(Throwable throwable) {
+    if (throwable instanceof CompletionException && throwable.getCause() != null) return throwable.getCause();
+    return throwable;
+  }
+
+  @Override
+  void cancelled() {
+    if (stage instanceof Future) ((Future<?>) stage).cancel(false);
+  }
+
+  @Override
+  void abandoned() {
+    if (tryComplete(Bad.of(converter.apply(new CancellationException("no longer needed"))))) cancelled();
+  }
+}
@@ -0,0 +1,48 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Carries thread-bound state, like a logging MDC or a trace context, over the executor hops of the
+ * futures of a context. The state is captured on the thread submitting a task, or registering a
+ * callback or a transformation, then restored around its run on the thread that picks it up. Attach
+ * one with {@link ExecutionContext#withPropagation(ContextPropagator)}.
+ * <p>
+ * Both methods are called once per hop, so they should be cheap: typically reading and writing a
+ * thread local.
+ *
+ * @param <S> the type of the captured state
+ */
+public interface ContextPropagator<S> {
+
+  /**
+   * @return the state bound to the current thread
+   */
+  S capture();
+
+  /**
+   * Binds the given state to the current thread.
+   *
+   * @param snapshot a state previously returned by {@link #capture()} or by this method
+   * @return the state bound to the current thread before the call, to be restored afterwards
+   */
+  S restore(S snapshot);
+}
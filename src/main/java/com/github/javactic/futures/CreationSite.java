@@ -0,0 +1,100 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.security.CodeSource;
+import java.time.Duration;
+
+/**
+ * Where a sampled future was created, and by which operator. It is attached as the cause of the
+ * {@link java.util.concurrent.TimeoutException} thrown when waiting on that future times out, and
+ * listed by {@link CreationTracker#pending()} while the future is pending. Its stack trace is the
+ * one of the creation.
+ */
+public final class CreationSite extends Throwable {
+
+  private static final long serialVersionUID = 1L;
+  private static final CodeSource LIBRARY = CreationSite.class.getProtectionDomain().getCodeSource();
+
+  private final transient long createdAt = System.nanoTime();
+  private String operator;
+  private StackTraceElement caller;
+
+  CreationSite() {
+    super(null, null, false, true);
+  }
+
+  /**
+   * @return the time elapsed since the creation of the future
+   */
+  public Duration age() {
+    return Duration.ofNanos(System.nanoTime() - createdAt);
+  }
+
+  /**
+   * @return the method of this library that created the future, like map or promise
+   */
+  public String operator() {
+    locate();
+    return operator;
+  }
+
+  /**
+   * @return the first frame of the creation stack outside of this library, or null if there is none
+   */
+  public StackTraceElement caller() {
+    locate();
+    return caller;
+  }
+
+  @Override
+  public String getMessage() {
+    return "OrFuture created by " + operator() + " at " + caller() + ", " + age().toMillis() + " ms ago";
+  }
+
+  private synchronized void locate() {
+    if (operator != null) return;
+    String last = "unknown";
+    StackTraceElement first = null;
+    for (StackTraceElement frame : getStackTrace()) {
+      if (!isLibrary(frame.getClassName())) {
+        first = frame;
+        break;
+      }
+      if (!frame.getMethodName().startsWith("<") && !frame.getMethodName().startsWith("lambda$")) {
+        last = frame.getMethodName();
+      }
+    }
+    caller = first;
+    operator = last;
+  }
+
+  private static boolean isLibrary(String className) {
+    if (!className.startsWith("com.github.javactic.")) return false;
+    try {
+      // tells this library apart from code sharing its packages, like its tests
+      Class<?> type = Class.forName(className, false, CreationSite.class.getClassLoader());
+      return LIBRARY == null || LIBRARY.equals(type.getProtectionDomain().getCodeSource());
+    } catch (ClassNotFoundException | SecurityException e) {
+      return false;
+    }
+  }
+}
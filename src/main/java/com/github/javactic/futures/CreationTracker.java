@@ -0,0 +1,113 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.vavr.collection.Seq;
+import io.vavr.collection.Vector;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Records where a sample of the futures of a context are created, to find out which ones never
+ * complete or complete late. Attach one with {@link ExecutionContext#withCreationTracking(CreationTracker)}.
+ * <p>
+ * Recording a creation site costs a stack trace, so only the given share of the futures is sampled,
+ * which is meant to be low enough to keep tracking on in production. The sampled futures are held
+ * weakly until they complete: a future that nothing references anymore is forgotten.
+ */
+public final class CreationTracker {
+
+  private final double samplingRate;
+  private final Map<CreationSite, Sample> pending = new ConcurrentHashMap<>();
+  private final ReferenceQueue<OrFuture<?, ?>> forgotten = new ReferenceQueue<>();
+
+  /**
+   * @param samplingRate the share of the futures to track, between 0 and 1
+   */
+  public CreationTracker(double samplingRate) {
+    if (!(samplingRate >= 0 && samplingRate <= 1)) {
+      throw new IllegalArgumentException("samplingRate must be between 0 and 1: " + samplingRate);
+    }
+    this.samplingRate = samplingRate;
+  }
+
+  /**
+   * @return the site of the given future being created, or null if it is not sampled
+   */
+  CreationSite sample(OrFuture<?, ?> future) {
+    if (samplingRate < 1 && ThreadLocalRandom.current().nextDouble() >= samplingRate) return null;
+    expunge();
+    CreationSite site = new CreationSite();
+    pending.put(site, new Sample(future, site, forgotten));
+    return site;
+  }
+
+  private void expunge() {
+    for (Reference<?> ref; (ref = forgotten.poll()) != null; ) pending.remove(((Sample) ref).site, ref);
+  }
+
+  /**
+   * @return the number of sampled futures held, including the forgotten ones not dropped yet
+   */
+  int tracked() {
+    return pending.size();
+  }
+
+  void completed(CreationSite site) {
+    pending.remove(site);
+  }
+
+  /**
+   * @return the creation sites of the sampled futures still pending, the oldest first
+   */
+  public Seq<CreationSite> pending() {
+    expunge();
+    Vector<CreationSite> sites = Vector.empty();
+    for (Map.Entry<CreationSite, Sample> entry : pending.entrySet()) {
+      if (entry.getValue().get() == null) pending.remove(entry.getKey());
+      else sites = sites.append(entry.getKey());
+    }
+    return sites.sortBy(CreationSite::age).reverse();
+  }
+
+  /**
+   * @return a description of the sampled futures still pending, the oldest first
+   */
+  public String dump() {
+    StringBuilder sb = new StringBuilder();
+    for (CreationSite site : pending()) sb.append(site.getMessage()).append(System.lineSeparator());
+    return sb.toString();
+  }
+
+  private static final class Sample extends WeakReference<OrFuture<?, ?>> {
+    final CreationSite site;
+
+    Sample(OrFuture<?, ?> future, CreationSite site, ReferenceQueue<OrFuture<?, ?>> queue) {
+      super(future, queue);
+      this.site = site;
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import io.vavr.Tuple0;
+
+/**
+ * A future completed by the timer of its context. Cancelling it removes it from the timer.
+ *
+ * @param <B> the failure type
+ */
+final class Delay<B> extends OrFutureImpl<Tuple0, B> {
+
+  private volatile TimerWheel.Timeout timeout;
+
+  Delay(ExecutionContext<?> executionContext) {
+    super(executionContext);
+  }
+
+  void scheduled(TimerWheel.Timeout timeout) {
+    this.timeout = timeout;
+    if (isCompleted()) timeout.cancel();
+  }
+
+  @Override
+  void cancelled() {
+    TimerWheel.Timeout t = timeout;
+    if (t != null) t.cancel();
+  }
+}
@@ -29,31 +29,53 @@ import com.github.javactic.Or;
 import com.github.javactic.Validation;
 import io.vavr.*;
 import io.vavr.collection.Iterator;
+import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
 import io.vavr.collection.Vector;
+import io.vavr.control.Option;
 import io.vavr.control.Try;
+import org.reactivestreams.Publisher;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ThreadFactory;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collector;
 
-import static com.github.javactic.futures.Helper.accumulate;
-import static com.github.javactic.futures.Helper.withPromise;
+import static com.github.javactic.futures.Join.at;
 
 public class ExecutionContext<BAD> {
 
   private final Function<? super Throwable, ? extends BAD> converter;
   private final Executor executor;
   private final Lazy<ExecutionContext<One<BAD>>> accumulating;
+  private final Deadline<BAD> deadline;
+  final ExecutionMetrics metrics;
+  private final ContextPropagator<?> propagator;
+  final CreationTracker tracker;
+  final StallWatchdog watchdog;
 
   private ExecutionContext(Function<? super Throwable, ? extends BAD> exceptionConverter, Executor executor) {
+    this(exceptionConverter, executor, null, null, null, null, null);
+  }
+
+  private ExecutionContext(Function<? super Throwable, ? extends BAD> exceptionConverter, Executor executor,
+                           Deadline<BAD> deadline, ExecutionMetrics metrics,
+                           ContextPropagator<?> propagator, CreationTracker tracker, StallWatchdog watchdog) {
     this.executor = executor;
     this.converter = exceptionConverter;
-    this.accumulating = Lazy.of(() -> new ExecutionContext<>(exceptionConverter.andThen(One::of), executor));
+    this.deadline = deadline;
+    this.metrics = metrics;
+    this.propagator = propagator;
+    this.tracker = tracker;
+    this.watchdog = watchdog;
+    this.accumulating = Lazy.of(() -> new ExecutionContext<>(exceptionConverter.andThen(One::of), executor,
+      deadline == null ? null : deadline.withBad(One.of(deadline.expiredBad)), metrics, propagator, tracker, watchdog));
   }
 
   /**
@@ -66,12 +88,87 @@ public class ExecutionContext<BAD> {
     return new ExecutionContext<>(exceptionConverter, executor);
   }
 
+  /**
+   * Creates a context that runs tasks and callbacks on the thread that submits them, without
+   * any executor hop. Callbacks triggered while another callback of the context is running are
+   * queued and run once it returns, so long chains of transformations do not grow the stack.
+   * <p>
+   * This is meant for cheap, non-blocking transformations. Blocking in one of them, or waiting
+   * on a future of this context from within one of them, stalls every callback queued behind it.
+   *
+   * @param exceptionConverter a function to convert exceptions into instances of Bad
+   * @param <B> the bad type
+   * @return a new same-thread execution context
+   */
+  public static <B> ExecutionContext<B> sameThread(Function<? super Throwable, ? extends B> exceptionConverter) {
+    return new ExecutionContext<>(exceptionConverter, BatchingExecutor.sameThread());
+  }
+
+  /**
+   * Creates a context that batches its callbacks on the given executor. All the callbacks released
+   * by the completion of a future, and the callbacks those trigger in turn, are run one after the
+   * other in a single task of the executor instead of one task each. This cuts queue contention and
+   * context switches when many futures depend on each other.
+   * <p>
+   * Callbacks of a batch run sequentially, so a blocking callback holds up the others of its batch.
+   *
+   * @param exceptionConverter a function to convert exceptions into instances of Bad
+   * @param executor the executor running the batches
+   * @param <B> the bad type
+   * @return a new batching execution context
+   */
+  public static <B> ExecutionContext<B> batching(Function<? super Throwable, ? extends B> exceptionConverter, Executor executor) {
+    return new ExecutionContext<>(exceptionConverter, BatchingExecutor.on(executor));
+  }
+
+  /**
+   * Creates a family of contexts running the work of each key in order, and the work of different
+   * keys in parallel, on the given executor. See {@link KeyedExecutionContext}.
+   *
+   * @param exceptionConverter a function to convert exceptions into instances of Bad
+   * @param executor the executor shared by all keys
+   * @param stripes the number of serial queues the keys are spread over
+   * @param <B> the bad type
+   * @return a new keyed execution context
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public static <B> KeyedExecutionContext<B> keyed(Function<? super Throwable, ? extends B> exceptionConverter,
+                                                   Executor executor, int stripes) {
+    if (stripes <= 0) throw new IllegalArgumentException("stripes must be positive: " + stripes);
+    ExecutionContext<B>[] contexts = new ExecutionContext[stripes];
+    for (int i = 0; i < stripes; i++) {
+      contexts[i] = new ExecutionContext<>(exceptionConverter, new SerialExecutor(executor), null, null, null, null, null);
+    }
+    return new KeyedExecutionContext<>(contexts);
+  }
+
+  /**
+   * Creates a context that runs every task and callback on a new virtual thread. Blocking in a task,
+   * for instance by calling {@link OrFuture#get(Duration)} on another future, then only parks a
+   * virtual thread and does not hold up a platform thread, since futures do not wait on monitors.
+   * This makes it practical to write direct-style code that blocks on futures in thousands of tasks.
+   * <p>
+   * Virtual threads are looked up at runtime, so this library keeps running on Java 8.
+   *
+   * @param exceptionConverter a function to convert exceptions into instances of Bad
+   * @param <B> the bad type
+   * @return a new execution context running on virtual threads
+   * @throws UnsupportedOperationException if the running Java version has no virtual threads
+   */
+  public static <B> ExecutionContext<B> ofVirtualThreads(Function<? super Throwable, ? extends B> exceptionConverter) {
+    ThreadFactory factory = VirtualThreads.factory()
+      .getOrElseThrow(() -> new UnsupportedOperationException("virtual threads need Java 21 or later"));
+    return new ExecutionContext<>(exceptionConverter, task -> factory.newThread(task).start());
+  }
+
   public Executor getExecutor() {
     return executor;
   }
 
   public <H,C> OrPromise<H, C> promise() {
-    return new OrPromiseImpl<>(new OrFutureImpl<>(this));
+    OrFutureImpl<H, C> future = new OrFutureImpl<>(this);
+    future.watch();
+    return new OrPromiseImpl<>(future);
   }
 
   /**
@@ -82,19 +179,323 @@ public class ExecutionContext<BAD> {
    * @return a new future that completes with the result of the supplied task, or if the execution of the
    * task throws an exception, that exception will be handled with this factory's exception converter.
    */
-  @SuppressWarnings("unchecked")
   public <G> OrFuture<G, BAD> future(CheckedFunction0<? extends Or<? extends G, ? extends BAD>> task) {
-    OrFutureImpl<G, BAD> future = new OrFutureImpl<>(this);
-    executor.execute(() -> {
-      try {
-        future.complete((Or<G, BAD>) task.apply());
-      } catch (Throwable t) {
-        future.complete(Bad.of(converter.apply(t)));
-      }
-    });
+    if (expired()) return new CompletedOrFuture<>(this, Bad.of(deadline.expiredBad), true);
+    Task<G, BAD> future = new Task<>(this, task);
+    future.submit();
     return future;
   }
 
+  /**
+   * Opens a scope forking tasks on this context, to be closed by the current thread. See {@link OrScope}.
+   *
+   * @param policy how the failures of the tasks are handled
+   * @param <G> the good type of the tasks
+   * @return a new scope
+   */
+  public <G> OrScope<G, BAD> scope(OrScope.Policy policy) {
+    return new OrScope<>(this, Objects.requireNonNull(policy));
+  }
+
+  /**
+   * Creates an OrFuture completing with the result of the given stage, converting its exceptions with
+   * the exception converter of this context. See {@link #fromCompletionStage(CompletionStage, Function)}.
+   *
+   * @param stage the stage to complete with
+   * @param <G> the good type
+   * @return a new future completing with the result of the given stage
+   */
+  public <G> OrFuture<G, BAD> fromCompletionStage(CompletionStage<? extends G> stage) {
+    return fromCompletionStage(stage, converter);
+  }
+
+  /**
+   * Creates an OrFuture completing with the result of the given stage. The future is completed
+   * directly on the thread completing the stage, without going through the executor of this context,
+   * which only runs the operations applied to the future. Cancelling the future cancels the stage if
+   * it is a {@link java.util.concurrent.Future}, such as a CompletableFuture.
+   *
+   * @param stage the stage to complete with
+   * @param exceptionConverter a function to convert the exception the stage completes with into a Bad
+   * @param <G> the good type
+   * @return a new future completing with the result of the given stage
+   */
+  public <G> OrFuture<G, BAD> fromCompletionStage(CompletionStage<? extends G> stage,
+                                                   Function<? super Throwable, ? extends BAD> exceptionConverter) {
+    CompletionStageFuture<G, BAD> future = new CompletionStageFuture<>(this, stage, exceptionConverter);
+    future.link();
+    return future;
+  }
+
+  /**
+   * Creates an OrFuture running the given task, hedging against slow executions: if the task has not
+   * completed after the given delay, another attempt is started, and so on up to the given number
+   * of attempts. An attempt failing with a Bad starts the next one right away. The future completes
+   * with the first Good of any attempt, at which point the other attempts are released, like the
+   * losers of {@link #firstCompletedOf(Iterable)}, which cancels the ones nothing else depends on.
+   * If all attempts fail, the future completes with all their Bads, in the order the attempts
+   * were started.
+   * <p>
+   * The task must be safe to run several times concurrently. The delays do not hold any thread,
+   * the timer of this context takes care of them.
+   *
+   * @param after how long to wait for an attempt before starting the next one
+   * @param task asynchronous computation to execute
+   * @param maxAttempts the maximum number of attempts, at least 1
+   * @param <G> the good type
+   * @return a new future completing with the first Good of the attempts, or with all their Bads
+   */
+  public <G> OrFuture<G, Every<BAD>> hedge(Duration after, CheckedFunction0<? extends Or<? extends G, ? extends BAD>> task,
+                                          int maxAttempts) {
+    if (maxAttempts <= 0) throw new IllegalArgumentException("maxAttempts must be positive: " + maxAttempts);
+    Hedge<G, BAD> hedge = new Hedge<>(this, task, nanos(after), maxAttempts);
+    hedge.launch(0);
+    return hedge;
+  }
+
+  /**
+   * Creates a cache of the values computed by the given loader, each load running as a task of this
+   * context. Concurrent requests for the same key share a single load. See {@link OrFutureCache}.
+   *
+   * @param loader the function computing the value of a key
+   * @param maximumSize the number of entries beyond which the oldest ones are evicted
+   * @param timeToLive how long a value is kept once loaded
+   * @param cacheBads whether values completed with a Bad are kept, or dropped so that the next
+   *                  request loads them again
+   * @param <K> the key type
+   * @param <G> the good type
+   * @return a new cache
+   */
+  public <K, G> OrFutureCache<K, G, BAD> cache(CheckedFunction1<? super K, ? extends Or<? extends G, ? extends BAD>> loader,
+                                               int maximumSize, Duration timeToLive, boolean cacheBads) {
+    return new OrFutureCache<>(this, loader, maximumSize, timeToLive, cacheBads);
+  }
+
+  /**
+   * Creates a loader coalescing the keys requested within the given window, or until the maximum
+   * batch size is reached, into a single call of the given batch function, which runs as a task
+   * of this context. See {@link BatchLoader}.
+   *
+   * @param batchFunction the function computing the values of a batch of keys
+   * @param maxBatchSize the maximum number of distinct keys in a batch
+   * @param window how long the first key of a batch waits for others
+   * @param <K> the key type
+   * @param <V> the value type
+   * @return a new batch loader
+   */
+  public <K, V> BatchLoader<K, V, BAD>
+  batchLoader(CheckedFunction1<? super Seq<K>, ? extends Map<? super K, ? extends Or<? extends V, ? extends Every<? extends BAD>>>> batchFunction,
+              int maxBatchSize, Duration window) {
+    return new BatchLoader<>(this, batchFunction, maxBatchSize, nanos(window));
+  }
+
+  BAD convert(Throwable throwable) {
+    return converter.apply(throwable);
+  }
+
+  /**
+   * Hands the given task to the executor of this context, outside of any batch of callbacks.
+   *
+   * @param task the task to run
+   */
+  void fork(Runnable task) {
+    if (executor instanceof BatchingExecutor) ((BatchingExecutor) executor).fork(task);
+    else executor.execute(task);
+  }
+
+  /**
+   * Returns the given callback, running with the state of the propagator of this context captured
+   * now, when it gets registered, rather than on the thread that completes its future.
+   *
+   * @param callback the callback to run on the executor of this context
+   * @return the callback carrying the state, or the callback itself if this context has no propagator
+   */
+  Runnable capturing(Runnable callback) {
+    return propagator == null ? callback : PropagatingExecutor.propagatingIfChanged(propagator, callback);
+  }
+
+  /**
+   * Runs the given task on the timer thread once the given delay has elapsed, with the state of the
+   * propagator of this context captured now.
+   *
+   * @param task the task to run on the timer thread
+   * @param delay the delay in nanoseconds
+   * @return a handle to cancel the task
+   */
+  TimerWheel.Timeout timeout(Runnable task, long delay) {
+    Runnable propagated = propagator == null ? task : PropagatingExecutor.propagating(propagator, task);
+    return TimerWheel.shared().schedule(propagated, delay);
+  }
+
+  /**
+   * Creates an OrFuture that will execute the given task using this context's executor once the
+   * given delay has elapsed. Waiting for the delay does not hold any thread, the timer of this
+   * context takes care of it. Cancelling the future before the delay elapsed unschedules the task.
+   *
+   * @param delay how long to wait before executing the task
+   * @param task asynchronous computation to execute
+   * @param <G> the good type
+   * @return a new future that completes with the result of the supplied task, or if the execution of the
+   * task throws an exception, that exception will be handled with this factory's exception converter.
+   */
+  public <G> OrFuture<G, BAD> schedule(Duration delay, CheckedFunction0<? extends Or<? extends G, ? extends BAD>> task) {
+    if (expired()) return new CompletedOrFuture<>(this, Bad.of(deadline.expiredBad), true);
+    Task<G, BAD> future = new Task<>(this, task);
+    long nanos = nanos(delay);
+    // no point in waiting past the deadline, the task is skipped from then on
+    if (deadline != null) nanos = Math.min(nanos, deadline.nanosLeft());
+    future.scheduled(timeout(future::submit, nanos));
+    return future;
+  }
+
+  /**
+   * Creates an OrFuture that completes with a Good once the given delay has elapsed. Waiting for the
+   * delay does not hold any thread, the timer of this context takes care of it.
+   *
+   * @param delay how long to wait before completing
+   * @param <B> the bad type
+   * @return a new future that completes after the given delay
+   */
+  public <B> OrFuture<Tuple0, B> delay(Duration delay) {
+    Delay<B> future = new Delay<>(this);
+    future.scheduled(timeout(() -> future.tryComplete(Good.of(Tuple0.instance())), nanos(delay)));
+    return future;
+  }
+
+  static long nanos(Duration duration) {
+    try {
+      return duration.toNanos();
+    } catch (ArithmeticException e) {
+      return duration.isNegative() ? Long.MIN_VALUE : Long.MAX_VALUE;
+    }
+  }
+
+  /**
+   * Returns a context that records where a sample of its futures, and of the futures derived from
+   * them, are created. See {@link CreationTracker}.
+   *
+   * @param tracker the tracker recording the creation sites
+   * @return a new context recording creation sites with the given tracker
+   */
+  public ExecutionContext<BAD> withCreationTracking(CreationTracker tracker) {
+    Objects.requireNonNull(tracker, "tracker is null");
+    return new ExecutionContext<>(converter, executor, deadline, metrics, propagator, tracker, watchdog);
+  }
+
+  /**
+   * Returns a context whose promises, tasks and futures of completion stages are watched by the
+   * given watchdog, which reports them when they stay pending for too long. See {@link StallWatchdog}.
+   *
+   * @param watchdog the watchdog of the pending futures
+   * @return a new context watched by the given watchdog
+   */
+  public ExecutionContext<BAD> withWatchdog(StallWatchdog watchdog) {
+    Objects.requireNonNull(watchdog, "watchdog is null");
+    return new ExecutionContext<>(converter, executor, deadline, metrics, propagator, tracker, watchdog);
+  }
+
+  /**
+   * Returns a context that carries the state of the given propagator, like a logging MDC or a trace
+   * context, over every executor hop of its tasks and of the callbacks of its futures. The state is
+   * captured on the thread submitting a task, registering a callback or a transformation, or calling
+   * a method that waits on the timer, and restored around the run of that work. A callback thus sees
+   * the state of whoever registered it, not of whoever completed its future. On a batching context
+   * the state is restored once per batch, and not at all on a same-thread one, as long as the
+   * callbacks of the batch were registered with the state of the completing thread.
+   * <p>
+   * Calling this method again on the returned context carries the states of both propagators.
+   *
+   * @param propagator the propagator of the state
+   * @return a new context carrying the state of the given propagator
+   */
+  public ExecutionContext<BAD> withPropagation(ContextPropagator<?> propagator) {
+    Objects.requireNonNull(propagator, "propagator is null");
+    Executor propagating = executor instanceof BatchingExecutor
+      ? ((BatchingExecutor) executor).propagating(propagator)
+      : new PropagatingExecutor<>(executor, propagator);
+    ContextPropagator<?> carried = this.propagator == null ? propagator : PropagatingExecutor.both(this.propagator, propagator);
+    return new ExecutionContext<>(converter, propagating, deadline, metrics, carried, tracker, watchdog);
+  }
+
+  /**
+   * Returns a context that shares the executor, exception converter, timer and deadline of this
+   * one, and reports to the given listener the tasks it runs, the callbacks it dispatches and the
+   * futures it creates and completes. Futures derived from the ones of the returned context report
+   * to the same listener. Contexts without a listener skip the reporting entirely.
+   *
+   * @param metrics the listener to report to
+   * @return a new context reporting to the given listener
+   */
+  public ExecutionContext<BAD> withMetrics(ExecutionMetrics metrics) {
+    Objects.requireNonNull(metrics, "metrics is null");
+    return new ExecutionContext<>(converter, executor, deadline, metrics, propagator, tracker, watchdog);
+  }
+
+  /**
+   * Returns a context that shares the executor, exception converter and timer of this one, with a
+   * deadline the given budget from now. If this context already has an earlier deadline, that one
+   * is kept.
+   * <p>
+   * The deadline travels with the futures of the returned context and with the futures derived
+   * from them through map, filter, recover, flatMap and the like. Tasks of the context that would
+   * start after the deadline, and flatMap stages that would apply their function after it, are
+   * skipped and complete with the given Bad instead, so that no work is scheduled for a result that
+   * would come too late. Stages can check {@link #timeLeft()} to size the work they hand off.
+   * <p>
+   * Running work is not interrupted when the deadline expires, use {@link OrFuture#within} for that.
+   * An existing future can be attached to the deadline with {@link OrFuture#with(ExecutionContext)}.
+   *
+   * @param budget the time left from now until the deadline
+   * @param expiredBad the failure value of the tasks and stages skipped past the deadline
+   * @return a new context with the given deadline
+   */
+  public ExecutionContext<BAD> withDeadline(Duration budget, BAD expiredBad) {
+    Deadline<BAD> next = new Deadline<>(System.nanoTime(), Math.max(0, nanos(budget)), expiredBad);
+    if (deadline != null && deadline.nanosLeft() <= next.nanosLeft()) next = deadline.withBad(expiredBad);
+    return new ExecutionContext<>(converter, executor, next, metrics, propagator, tracker, watchdog);
+  }
+
+  /**
+   * Returns the time left until the deadline of this context.
+   *
+   * @return the time left, zero once the deadline expired, or none if this context has no deadline
+   */
+  public Option<Duration> timeLeft() {
+    if (deadline == null) return Option.none();
+    return Option.of(Duration.ofNanos(Math.max(0, deadline.nanosLeft())));
+  }
+
+  boolean expired() {
+    return deadline != null && deadline.nanosLeft() <= 0;
+  }
+
+  BAD expiredBad() {
+    return deadline.expiredBad;
+  }
+
+  /**
+   * A point in time, kept as a budget from a start so that distant deadlines do not overflow.
+   */
+  private static final class Deadline<B> {
+    final long start;
+    final long budget;
+    final B expiredBad;
+
+    Deadline(long start, long budget, B expiredBad) {
+      this.start = start;
+      this.budget = budget;
+      this.expiredBad = expiredBad;
+    }
+
+    long nanosLeft() {
+      return budget - (System.nanoTime() - start);
+    }
+
+    <C> Deadline<C> withBad(C bad) {
+      return new Deadline<>(start, budget, bad);
+    }
+  }
+
   /**
    * Returns an accumulating version of this context.
    *
@@ -108,25 +509,27 @@ public class ExecutionContext<BAD> {
     throwable -> String.valueOf(throwable.getMessage()); // null -> "null"
 
   /**
-   * Creates an OrFuture that is already completed with a {@link Bad}.
+   * Creates an OrFuture that is already completed with a {@link Bad}. Synchronous transformations
+   * such as map or recover are applied right away on the calling thread.
    *
    * @param bad the failure value
    * @param <G> the success type
    * @return an instance of OrFuture
    */
   public <G, B> OrFuture<G, B> badFuture(B bad) {
-    return this.<G, B>promise().failure(bad).future();
+    return new CompletedOrFuture<>(this, Bad.of(bad), false);
   }
 
   /**
-   * Creates an OrFuture that is already completed with a {@link Good}.
+   * Creates an OrFuture that is already completed with a {@link Good}. Synchronous transformations
+   * such as map or recover are applied right away on the calling thread.
    *
    * @param good the success value
    * @param <G>  the success type
    * @return an instance of OrFuture
    */
   public <G,B> OrFuture<G, B> goodFuture(G good) {
-    return this.<G, B>promise().success(good).future();
+    return new CompletedOrFuture<>(this, Good.of(good), false);
   }
 
 
@@ -182,12 +585,66 @@ public class ExecutionContext<BAD> {
   validatedBy(Iterable<? extends F> iterable,
               Function<? super F, ? extends OrFuture<? extends G, ? extends Every<? extends ERR>>> f,
               Collector<? super G, A, I> collector) {
+    return combined(Iterator.ofAll(iterable).map(f), collector);
+  }
+
+  /**
+   * Maps the elements pulled from an iterator into OrFutures of type OrFuture&lt;G, EVERY&lt;ERR&gt;&gt;
+   * (where EVERY is some subtype of Every) using the passed function f, with at most the given number
+   * of them in flight, then combines them into a single OrFuture of type OrFuture&lt;Vector&lt;G&gt;,
+   * Every&lt;ERR&gt;&gt;. See {@link #validatedBy(java.util.Iterator, int, Function, Collector)}.
+   *
+   * @param <F>         the type of the elements to validate
+   * @param <G>         the Good type of the resulting Or
+   * @param <ERR>       the Bad type of the resulting Or
+   * @param input       the iterator of elements to validate, for instance from a Stream
+   * @param parallelism the maximum number of validations in flight
+   * @param f           the validation function
+   * @return an Or of all the success values or of all the errors
+   */
+  public <F, G, ERR> OrFuture<Vector<G>, Every<ERR>>
+  validatedBy(java.util.Iterator<? extends F> input, int parallelism,
+              Function<? super F, ? extends OrFuture<? extends G, ? extends Every<? extends ERR>>> f) {
+    return validatedBy(input, parallelism, f, Vector.collector());
+  }
+
+  /**
+   * Maps the elements pulled from an iterator into OrFutures of type OrFuture&lt;G, EVERY&lt;ERR&gt;&gt;
+   * (where EVERY is some subtype of Every) using the passed function f, then combines them into a
+   * single OrFuture of type OrFuture&lt;COLL&lt;G&gt;, Every&lt;ERR&gt;&gt; using a Collector to
+   * determine the wanted collection type COLL.
+   * <p>
+   * Unlike {@link #validatedBy(Iterable, Function, Collector)}, elements are pulled from the iterator
+   * only while fewer than the given number of them are validated and waiting to be collected, in the
+   * order of the iterator. This bounds the work in flight, and the memory used apart from the results,
+   * whatever the size of the input. Once a validation failed, the following Goods are dropped rather
+   * than collected, but the whole input is still validated to accumulate every error.
+   *
+   * @param <F>         the type of the elements to validate
+   * @param <G>         the Good type of the resulting Or
+   * @param <A>         the mutable accumulation type of the reduction operation of the collector
+   * @param <I>         the result type of the reduction operation
+   * @param <ERR>       the Bad type of the resulting Or
+   * @param input       the iterator of elements to validate, for instance from a Stream
+   * @param parallelism the maximum number of validations in flight
+   * @param f           the validation function
+   * @param collector   the collector producing the resulting collection
+   * @return an Or of all the success values or of all the errors
+   */
+  public <F, G, A, I extends Iterable<? extends G>, ERR> OrFuture<I, Every<ERR>>
+  validatedBy(java.util.Iterator<? extends F> input, int parallelism,
+              Function<? super F, ? extends OrFuture<? extends G, ? extends Every<? extends ERR>>> f,
+              Collector<? super G, A, I> collector) {
+    return traverse(Iterator.ofAll(input).map(f), parallelism, collector, false);
+  }
 
-    Vector<OrFuture<? extends G, ? extends Every<? extends ERR>>> futures =
-      Iterator
-        .ofAll(iterable)
-        .foldLeft(Vector.empty(), (vec, elem) -> vec.append(f.apply(elem)));
-    return combined(futures, collector);
+  private <G, ERR, A, I extends Iterable<? extends G>> OrFuture<I, Every<ERR>>
+  traverse(java.util.Iterator<? extends OrFuture<? extends G, ? extends Every<? extends ERR>>> input, int parallelism,
+           Collector<? super G, A, I> collector, boolean failFast) {
+    if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+    BoundedTraversal<G, ERR, A, I> traversal = new BoundedTraversal<>(this, input, parallelism, collector, failFast);
+    traversal.drain();
+    return traversal;
   }
 
   // ----------------------------------------------------------------------------------------------
@@ -221,6 +678,9 @@ public class ExecutionContext<BAD> {
    * Combines two accumulating OrFutures into a single one using the given function.
    * The resulting OrFuture will complete with a Good if both OrFutures complete with
    * Goods, otherwise it will complete with a Bad containing every error in the Bads.
+   * <p>
+   * This and the other arities wait on all their OrFutures at once, and run the function in a
+   * single dispatch on the executor once the last one completes.
    *
    * @param <A>      the success type
    * @param <B>      the success type
@@ -237,10 +697,7 @@ public class ExecutionContext<BAD> {
            OrFuture<? extends B, ? extends Every<? extends ERR>> fb,
            BiFunction<? super A, ? super B, ? extends RESULT> function) {
 
-    return withPromise(this, promise ->
-      fa.onComplete(ora ->
-          fb.onComplete(orb ->
-              promise.complete(Accumulation.withGood(ora, orb, function)))));
+    return Join.of(this, r -> Accumulation.withGood(at(r, 0), at(r, 1), function), fa, fb);
   }
 
   public <A, B, C, ERR, RESULT> OrFuture<RESULT, Every<ERR>>
@@ -249,11 +706,7 @@ public class ExecutionContext<BAD> {
            OrFuture<? extends C, ? extends Every<? extends ERR>> fc,
            Function3<? super A, ? super B, ? super C, ? extends RESULT> function) {
 
-    return withPromise(this, promise ->
-      fa.onComplete(ora ->
-          fb.onComplete(orb ->
-              fc.onComplete(orc ->
-                  promise.complete(Accumulation.withGood(ora, orb, orc, function))))));
+    return Join.of(this, r -> Accumulation.withGood(at(r, 0), at(r, 1), at(r, 2), function), fa, fb, fc);
   }
 
   public <A, B, C, D, ERR, RESULT> OrFuture<RESULT, Every<ERR>>
@@ -263,12 +716,7 @@ public class ExecutionContext<BAD> {
            OrFuture<? extends D, ? extends Every<? extends ERR>> fd,
            Function4<? super A, ? super B, ? super C, ? super D, ? extends RESULT> function) {
 
-    return withPromise(this, promise ->
-      fa.onComplete(ora ->
-          fb.onComplete(orb ->
-              fc.onComplete(orc ->
-                  fd.onComplete(ord ->
-                      promise.complete(Accumulation.withGood(ora, orb, orc, ord, function)))))));
+    return Join.of(this, r -> Accumulation.withGood(at(r, 0), at(r, 1), at(r, 2), at(r, 3), function), fa, fb, fc, fd);
   }
 
   public <A, B, C, D, E, ERR, RESULT> OrFuture<RESULT, Every<ERR>>
@@ -279,13 +727,8 @@ public class ExecutionContext<BAD> {
            OrFuture<? extends E, ? extends Every<? extends ERR>> fe,
            Function5<? super A, ? super B, ? super C, ? super D, ? super E, ? extends RESULT> function) {
 
-    return withPromise(this, promise ->
-      fa.onComplete(ora ->
-          fb.onComplete(orb ->
-              fc.onComplete(orc ->
-                  fd.onComplete(ord ->
-                      fe.onComplete(ore ->
-                          promise.complete(Accumulation.withGood(ora, orb, orc, ord, ore, function))))))));
+    return Join.of(this, r -> Accumulation.withGood(at(r, 0), at(r, 1), at(r, 2), at(r, 3), at(r, 4), function),
+      fa, fb, fc, fd, fe);
   }
 
   public <A, B, C, D, E, F, ERR, RESULT> OrFuture<RESULT, Every<ERR>>
@@ -297,14 +740,8 @@ public class ExecutionContext<BAD> {
            OrFuture<? extends F, ? extends Every<? extends ERR>> ff,
            Function6<? super A, ? super B, ? super C, ? super D, ? super E, ? super F, ? extends RESULT> function) {
 
-    return withPromise(this, promise ->
-      fa.onComplete(ora ->
-          fb.onComplete(orb ->
-              fc.onComplete(orc ->
-                  fd.onComplete(ord ->
-                      fe.onComplete(ore ->
-                          ff.onComplete(orf ->
-                              promise.complete(Accumulation.withGood(ora, orb, orc, ord, ore, orf, function)))))))));
+    return Join.of(this, r -> Accumulation.withGood(at(r, 0), at(r, 1), at(r, 2), at(r, 3), at(r, 4), at(r, 5), function),
+      fa, fb, fc, fd, fe, ff);
   }
 
   public <A, B, C, D, E, F, G, ERR, RESULT> OrFuture<RESULT, Every<ERR>>
@@ -316,15 +753,8 @@ public class ExecutionContext<BAD> {
            OrFuture<? extends F, ? extends Every<? extends ERR>> ff,
            OrFuture<? extends G, ? extends Every<? extends ERR>> fg,
            Function7<? super A, ? super B, ? super C, ? super D, ? super E, ? super F, ? super G, ? extends RESULT> function) {
-    return withPromise(this, promise ->
-      fa.onComplete(ora ->
-          fb.onComplete(orb ->
-              fc.onComplete(orc ->
-                  fd.onComplete(ord ->
-                      fe.onComplete(ore ->
-                          ff.onComplete(orf ->
-                              fg.onComplete(org ->
-                                  promise.complete(Accumulation.withGood(ora, orb, orc, ord, ore, orf, org, function))))))))));
+    return Join.of(this, r -> Accumulation.withGood(at(r, 0), at(r, 1), at(r, 2), at(r, 3), at(r, 4), at(r, 5), at(r, 6), function),
+      fa, fb, fc, fd, fe, ff, fg);
   }
 
   public <A, B, C, D, E, F, G, H, ERR, RESULT> OrFuture<RESULT, Every<ERR>>
@@ -338,17 +768,8 @@ public class ExecutionContext<BAD> {
            OrFuture<? extends H, ? extends Every<? extends ERR>> fh,
            Function8<? super A, ? super B, ? super C, ? super D, ? super E, ? super F, ? super G, ? super H, ? extends RESULT> function) {
 
-    return withPromise(this, promise ->
-      fa.onComplete(ora ->
-          fb.onComplete(orb ->
-              fc.onComplete(orc ->
-                  fd.onComplete(ord ->
-                      fe.onComplete(ore ->
-                          ff.onComplete(orf ->
-                              fg.onComplete(org ->
-                                  fh.onComplete(orh ->
-                                      promise.complete(Accumulation.withGood(ora, orb, orc, ord, ore, orf, org, orh, function))))))))))
-    );
+    return Join.of(this, r -> Accumulation.withGood(at(r, 0), at(r, 1), at(r, 2), at(r, 3), at(r, 4), at(r, 5), at(r, 6), at(r, 7), function),
+      fa, fb, fc, fd, fe, ff, fg, fh);
   }
 
   // ----------------------------------------------------------------------------------------------
@@ -357,7 +778,7 @@ public class ExecutionContext<BAD> {
 
   /**
    * Returns an OrFuture that will complete as soon as the first OrFuture from the given Iterable
-   * completes.
+   * completes. The other OrFutures are then released, which cancels the ones nothing else depends on.
    *
    * @param input an Iterable of OrFutures
    * @param <G> the good type of the future
@@ -366,9 +787,42 @@ public class ExecutionContext<BAD> {
    */
   public <G, ERR> OrFuture<G, ERR>
   firstCompletedOf(Iterable<? extends OrFuture<? extends G, ? extends ERR>> input) {
-    OrPromise<G, ERR> promise = promise();
-    input.forEach(future -> future.onComplete(promise::tryComplete));
-    return promise.future();
+    OrFutureImpl<G, ERR> first = new OrFutureImpl<>(this);
+    List<OrFuture<?, ?>> inputs = new ArrayList<>();
+    for (OrFuture<? extends G, ? extends ERR> future : input) {
+      inputs.add(future);
+      OrFutureImpl.propagate(future, first);
+    }
+    // the losers are not needed anymore
+    first.register(or -> inputs.forEach(OrFutureImpl::release));
+    return first;
+  }
+
+  // ----------------------------------------------------------------------------------------------
+  // IN COMPLETION ORDER
+  // ----------------------------------------------------------------------------------------------
+
+  /**
+   * Returns a Reactive Streams publisher of the results of the given futures, in the order they
+   * complete. Unlike sequence and combined, this lets a consumer start on the first results while
+   * the others are still running.
+   * <p>
+   * The publisher honours the demand of its subscribers: it takes the next future from the iterable
+   * only while fewer futures are in flight than results were requested. With a lazy iterable, such as
+   * a vavr Iterator mapping inputs to tasks of this context, work is thus started as results are
+   * consumed and only as many results are buffered as were requested. Cancelling the subscription
+   * releases the futures in flight, which cancels the ones nothing else depends on.
+   * <p>
+   * Every subscription iterates the given iterable anew.
+   *
+   * @param input an Iterable of OrFutures
+   * @param <G> the good type of the futures
+   * @param <ERR> the bad type of the futures
+   * @return a publisher of the results of the given futures in completion order
+   */
+  public <G, ERR> Publisher<Or<G, ERR>>
+  inCompletionOrder(Iterable<? extends OrFuture<? extends G, ? extends ERR>> input) {
+    return new CompletionOrderPublisher<>(this, input);
   }
 
   // ----------------------------------------------------------------------------------------------
@@ -396,7 +850,11 @@ public class ExecutionContext<BAD> {
    * where COLL is a collection created with the collector given as argument.
    * <p>
    * This method differs from combined in that the returned future will fail fast and complete as soon
-   * as one of the given futures fails.
+   * as one of the given futures fails. The remaining futures are then released, which cancels the ones
+   * nothing else depends on.
+   * <p>
+   * Results are fed to the collector as they arrive, in input order, or right away with a concurrent
+   * and unordered collector, and the futures are not retained once completed.
    *
    * @param input iterable of OrFutures
    * @param collector a collector to collect the results of the transformation
@@ -406,30 +864,52 @@ public class ExecutionContext<BAD> {
    * @param <I> the result type of the reduction operation
    * @return a single OrFuture
    */
-  @SuppressWarnings("unchecked")
   public <G, ERR, A, I extends Iterable<? extends G>> OrFuture<I, Every<ERR>>
   sequence(Iterable<? extends OrFuture<? extends G, ? extends Every<? extends ERR>>> input,
            Collector<? super G, A, I> collector) {
-    OrPromise<I, Every<ERR>> promise = promise();
-    AtomicInteger count = new AtomicInteger(0);
-    AtomicBoolean finished = new AtomicBoolean(false);
-    // this is necessary as nothing guarantees the iterable can be iterated multiple times
-    Queue<OrFuture<? extends G, ? extends Every<? extends ERR>>> copy = new ConcurrentLinkedQueue<>();
-    java.util.Iterator<? extends OrFuture<? extends G, ? extends Every<? extends ERR>>> iterator = input.iterator();
-    while (iterator.hasNext()) {
-      count.incrementAndGet();
-      OrFuture<? extends G, ? extends Every<? extends ERR>> future = iterator.next();
-      copy.add(future);
-      if (!iterator.hasNext()) finished.set(true);
-      future.onComplete(or -> {
-        if (or.isBad()) {
-          promise.tryFailure((Every<ERR>) or.getBad());
-        } else if (count.decrementAndGet() == 0 && finished.get()) {
-          promise.complete(accumulate(copy, collector));
-        }
-      });
-    }
-    return promise.future();
+    return Aggregation.of(this, input, collector, true);
+  }
+
+  /**
+   * Transforms the OrFutures pulled from an iterator into an OrFuture&lt;Vector&lt;G, ERR&gt;&gt;, with at
+   * most the given number of them in flight. See {@link #sequence(java.util.Iterator, int, Collector)}.
+   *
+   * @param input iterator of OrFutures, typically creating them lazily
+   * @param parallelism the maximum number of futures in flight
+   * @param <G> the good type of the future
+   * @param <ERR> the bad type of the future
+   * @return a single OrFuture
+   */
+  public <G, ERR> OrFuture<Vector<G>, Every<ERR>>
+  sequence(java.util.Iterator<? extends OrFuture<? extends G, ? extends Every<? extends ERR>>> input, int parallelism) {
+    return sequence(input, parallelism, Vector.collector());
+  }
+
+  /**
+   * Transforms the OrFutures pulled from an iterator into an OrFuture&lt;COLL&lt;G, ERR&gt;&gt;
+   * where COLL is a collection created with the collector given as argument.
+   * <p>
+   * Futures are pulled from the iterator only while fewer than the given number of them are pulled
+   * and waiting to be collected, in the order of the iterator. With an iterator creating its futures
+   * lazily, such as a vavr Iterator or a Stream mapping inputs to tasks of this context, this bounds
+   * the work in flight, and the memory used apart from the results, whatever the size of the input.
+   * <p>
+   * The returned future fails fast: it completes as soon as one of the futures fails, and the futures
+   * in flight are then released, which cancels the ones nothing else depends on.
+   *
+   * @param input iterator of OrFutures, typically creating them lazily
+   * @param parallelism the maximum number of futures in flight
+   * @param collector a collector to collect the results of the transformation
+   * @param <G> the good type of the future
+   * @param <ERR> the bad type of the future
+   * @param <A> the mutable accumulation type of the reduction operation
+   * @param <I> the result type of the reduction operation
+   * @return a single OrFuture
+   */
+  public <G, ERR, A, I extends Iterable<? extends G>> OrFuture<I, Every<ERR>>
+  sequence(java.util.Iterator<? extends OrFuture<? extends G, ? extends Every<? extends ERR>>> input, int parallelism,
+           Collector<? super G, A, I> collector) {
+    return traverse(input, parallelism, collector, true);
   }
 
 //  public <G, ERR, A, I extends Iterable<? extends G>> OrFuture<I, Every<ERR>>
@@ -468,7 +948,8 @@ public class ExecutionContext<BAD> {
    * the wanted collection type COLL.
    * <p>
    * This method differs from sequence in that it will accumulate every error in the returned
-   * future before completing.
+   * future before completing. Errors are accumulated in input order, whatever the order in which
+   * the futures complete, and a single callback per input future drives the result.
    *
    * @param <G>       the success type
    * @param <A>       the mutable accumulation type of the reduction operation of the collector
@@ -478,21 +959,10 @@ public class ExecutionContext<BAD> {
    * @param collector the collector producing the resulting collection
    * @return an OrFuture that completes with all the success values or with all the errors
    */
-  @SuppressWarnings("unchecked")
   public <G, ERR, A, I extends Iterable<? extends G>> OrFuture<I, Every<ERR>>
   combined(Iterable<? extends OrFuture<? extends G, ? extends Every<? extends ERR>>> input,
            Collector<? super G, A, I> collector) {
-    A goods = collector.supplier().get();
-    BiFunction<OrFuture<Tuple0, Every<ERR>>, OrFuture<G, Every<ERR>>, OrFuture<Tuple0, Every<ERR>>> combiner =
-        (ft0, fg) -> withGood(ft0, fg, (__,g) -> {
-          collector.accumulator().accept(goods, g);
-          return Tuple0.instance();
-        });
-
-    return Iterator
-        .ofAll((Iterable<OrFuture<G, Every<ERR>>>) input)
-        .foldLeft(this.goodFuture(null), combiner)
-        .map(vec -> collector.finisher().apply(goods));
+    return Aggregation.of(this, input, collector, false);
   }
 
   // ----------------------------------------------------------------------------------------------
@@ -0,0 +1,64 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Listener notified of what happens inside the futures of an execution context, to see where time
+ * goes in a graph of futures. Attach one with {@link ExecutionContext#withMetrics(ExecutionMetrics)};
+ * contexts without one do not pay for any of these calls.
+ * <p>
+ * The methods are called inline, on the threads running tasks and completing futures, so they must
+ * be thread-safe and fast. {@link InMemoryMetrics} is a ready to use implementation.
+ */
+public interface ExecutionMetrics {
+
+  /**
+   * Called when a task of the context ran.
+   *
+   * @param queueNanos the time the task waited for a thread, from its submission to the executor
+   * @param executionNanos the time the task ran
+   */
+  void taskExecuted(long queueNanos, long executionNanos);
+
+  /**
+   * Called when a callback of a future of the context is handed to the executor.
+   */
+  void callbackDispatched();
+
+  /**
+   * Called when a future of the context is created.
+   */
+  void futureCreated();
+
+  /**
+   * Called when a future of the context completes.
+   *
+   * @param good true if the future completed with a Good
+   */
+  void futureCompleted(boolean good);
+
+  /**
+   * Called when a pending future of the context is merged into another one, which completes on
+   * its behalf. The future never completes on its own and will not be reported to
+   * {@link #futureCompleted(boolean)}.
+   */
+  void futureMerged();
+}
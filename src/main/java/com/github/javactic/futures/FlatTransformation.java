@@ -0,0 +1,104 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import com.github.javactic.Bad;
+import com.github.javactic.Or;
+
+import java.util.function.Function;
+
+/**
+ * A future obtained by applying a future returning function to the result of another future,
+ * completing with the future that function returns.
+ * <p>
+ * A flatMap stage that starts once the deadline of its context has expired does not apply the
+ * function, it completes with the Bad configured for the deadline instead.
+ * <p>
+ * When the function returns another flatMap stage, as an asynchronous loop written with recursive
+ * flatMap does, that stage is linked to the first stage of the loop rather than completing it
+ * through a callback. Each step of the loop then only references the first stage, which only
+ * references the latest step, so the loop runs in constant memory however long it goes on. A stage
+ * that already has dependents of its own, such as one shared with other transformations, is not
+ * linked, so that cancelling this stage leaves those dependents alone.
+ *
+ * @param <G> the success type of the source future
+ * @param <B> the failure type of the source future
+ * @param <H> the success type of this future
+ * @param <C> the failure type of this future
+ */
+final class FlatTransformation<G, B, H, C> extends Stage<G, B, H, C> {
+
+  private Function<? super Or<G, B>, ? extends OrFuture<? extends H, ? extends C>> function;
+  private volatile OrFuture<? extends H, ? extends C> inner;
+
+  FlatTransformation(ExecutionContext<?> executionContext, OrFutureImpl<G, B> source, boolean contextBad,
+                     Function<? super Or<G, B>, ? extends OrFuture<? extends H, ? extends C>> function) {
+    super(executionContext, source, contextBad);
+    this.function = function;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public void run() {
+    Function<? super Or<G, B>, ? extends OrFuture<? extends H, ? extends C>> f = function;
+    function = null;
+    Or<G, B> or = takeInput();
+    if (isCompleted()) return;
+    if (contextBad && executionContext.expired()) {
+      complete((Or<H, C>) Bad.of(executionContext.expiredBad()));
+      return;
+    }
+    OrFuture<? extends H, ? extends C> next;
+    try {
+      next = f.apply(or);
+    } catch (Throwable t) {
+      handleUncaughtThrowable(t);
+      return;
+    }
+    // this stage may itself be a linked step, the work in flight is tracked by the first stage only
+    FlatTransformation<?, ?, H, C> root = (FlatTransformation<?, ?, H, C>) root();
+    root.inner = next;
+    if (!(next instanceof FlatTransformation && ((FlatTransformation<?, ?, H, C>) next).linkTo(root))) {
+      propagate(next, this);
+    }
+    // cancelled while the function was running
+    if (isCompleted()) releaseInner(next);
+  }
+
+  @Override
+  void cancelled() {
+    super.cancelled();
+    releaseInner(inner);
+  }
+
+  @Override
+  void abandoned() {
+    super.abandoned();
+    releaseInner(inner);
+  }
+
+  private static void releaseInner(OrFuture<?, ?> inner) {
+    // a step is only linked while nothing else depends on it, this stage is the only one that needs it
+    if (inner instanceof OrFutureImpl && ((OrFutureImpl<?, ?>) inner).isLinked()) ((OrFutureImpl<?, ?>) inner).abandoned();
+    else release(inner);
+  }
+}
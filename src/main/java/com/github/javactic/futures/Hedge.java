@@ -0,0 +1,120 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.javactic.Bad;
+import com.github.javactic.Every;
+import com.github.javactic.Good;
+import com.github.javactic.One;
+import com.github.javactic.Or;
+import io.vavr.CheckedFunction0;
+import io.vavr.collection.Vector;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A future completed by the first Good of several attempts at the same task. Another attempt is
+ * started whenever the latest one has not completed after the hedging delay, or as soon as an
+ * attempt fails, until the maximum number of attempts is reached. Like with firstCompletedOf,
+ * the attempts that lost are released once the future completes, which cancels them if nothing
+ * else depends on them.
+ *
+ * @param <G> the success type
+ * @param <B> the failure type of the attempts, which is the one of the context
+ */
+final class Hedge<G, B> extends OrFutureImpl<G, Every<B>> {
+
+  private final ExecutionContext<B> context;
+  private final CheckedFunction0<? extends Or<? extends G, ? extends B>> task;
+  private final long delay;
+  private final AtomicReferenceArray<OrFuture<G, B>> attempts;
+  private final Object[] bads;
+  private final AtomicInteger started = new AtomicInteger();
+  private final AtomicInteger failed = new AtomicInteger();
+  private volatile TimerWheel.Timeout timeout;
+
+  Hedge(ExecutionContext<B> context, CheckedFunction0<? extends Or<? extends G, ? extends B>> task,
+        long delay, int maxAttempts) {
+    super(context);
+    this.context = context;
+    this.task = task;
+    this.delay = delay;
+    this.attempts = new AtomicReferenceArray<>(maxAttempts);
+    this.bads = new Object[maxAttempts];
+  }
+
+  /**
+   * Starts the given attempt, unless another thread started it already or this future is completed.
+   */
+  void launch(int attempt) {
+    if (attempt >= attempts.length() || isCompleted() || !started.compareAndSet(attempt, attempt + 1)) return;
+    OrFuture<G, B> future = context.future(task);
+    attempts.set(attempt, future);
+    OrFutureImpl.onComplete(future, this, or -> attempted(attempt, or));
+    if (attempt + 1 < attempts.length()) {
+      timeout = context.timeout(() -> launch(attempt + 1), delay);
+    }
+    // completed while launching, the new attempt is not needed
+    if (isCompleted()) releaseAttempts();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void attempted(int attempt, Or<G, B> or) {
+    if (or.isGood()) {
+      if (tryComplete(Good.of(or.get()))) done();
+      return;
+    }
+    bads[attempt] = or.getBad();
+    if (failed.incrementAndGet() == attempts.length()) {
+      // every write to bads happened before its increment
+      Vector<B> all = Vector.of(bads).map(b -> (B) b);
+      if (tryComplete(Bad.of(Every.of(all.head(), all.tail())))) done();
+    } else {
+      // no point in waiting for the delay
+      launch(started.get());
+    }
+  }
+
+  private void done() {
+    TimerWheel.Timeout t = timeout;
+    if (t != null) t.cancel();
+    releaseAttempts();
+  }
+
+  private void releaseAttempts() {
+    for (int i = 0; i < attempts.length(); i++) {
+      OrFuture<G, B> attempt = attempts.get(i);
+      if (attempt != null) release(attempt);
+    }
+  }
+
+  @Override
+  void cancelled() {
+    done();
+  }
+
+  @Override
+  void abandoned() {
+    if (tryComplete(Bad.of(One.of(context.convert(new CancellationException("no longer needed")))))) done();
+  }
+}
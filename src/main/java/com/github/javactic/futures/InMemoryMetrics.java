@@ -0,0 +1,124 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics kept in memory: counters of dispatches and completions, and latency histograms of the
+ * time tasks wait in the queue and run. Every counter is striped, so that threads reporting at the
+ * same time do not contend on a shared variable.
+ */
+public final class InMemoryMetrics implements ExecutionMetrics {
+
+  private final LatencyHistogram queueTime = new LatencyHistogram();
+  private final LatencyHistogram executionTime = new LatencyHistogram();
+  private final LongAdder callbacks = new LongAdder();
+  private final LongAdder created = new LongAdder();
+  private final LongAdder merged = new LongAdder();
+  private final LongAdder goods = new LongAdder();
+  private final LongAdder bads = new LongAdder();
+
+  @Override
+  public void taskExecuted(long queueNanos, long executionNanos) {
+    queueTime.record(queueNanos);
+    executionTime.record(executionNanos);
+  }
+
+  @Override
+  public void callbackDispatched() {
+    callbacks.increment();
+  }
+
+  @Override
+  public void futureCreated() {
+    created.increment();
+  }
+
+  @Override
+  public void futureCompleted(boolean good) {
+    if (good) goods.increment();
+    else bads.increment();
+  }
+
+  @Override
+  public void futureMerged() {
+    merged.increment();
+  }
+
+  /**
+   * @return the time tasks waited for a thread
+   */
+  public LatencyHistogram queueTime() {
+    return queueTime;
+  }
+
+  /**
+   * @return the time tasks ran
+   */
+  public LatencyHistogram executionTime() {
+    return executionTime;
+  }
+
+  /**
+   * @return the number of tasks that ran
+   */
+  public long tasks() {
+    return executionTime.count();
+  }
+
+  /**
+   * @return the number of callbacks handed to the executor
+   */
+  public long callbackDispatches() {
+    return callbacks.sum();
+  }
+
+  /**
+   * @return the number of futures created and not completed yet
+   */
+  public long pendingFutures() {
+    // read the completions first, so that a concurrent completion never makes the gauge negative
+    long done = goods.sum() + bads.sum() + merged.sum();
+    return created.sum() - done;
+  }
+
+  /**
+   * @return the number of futures completed with a Good
+   */
+  public long goodCompletions() {
+    return goods.sum();
+  }
+
+  /**
+   * @return the number of futures completed with a Bad
+   */
+  public long badCompletions() {
+    return bads.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "InMemoryMetrics(tasks=" + tasks() + ", callbackDispatches=" + callbackDispatches()
+      + ", pendingFutures=" + pendingFutures() + ", goodCompletions=" + goodCompletions()
+      + ", badCompletions=" + badCompletions() + ", queueTime=" + queueTime + ", executionTime=" + executionTime + ")";
+  }
+}
@@ -0,0 +1,125 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.javactic.Every;
+import com.github.javactic.Or;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A future completed by a function of the results of a few futures, once they all completed.
+ * It waits on all of them at once: each one only records its result on the thread completing it,
+ * and the last one to arrive hands the function to the executor, so that the function runs in
+ * exactly one dispatch whatever the order and timing of the completions.
+ *
+ * @param <RESULT> the success type
+ * @param <ERR> the error type of the futures
+ */
+final class Join<RESULT, ERR> extends OrFutureImpl<RESULT, Every<ERR>> implements Runnable {
+
+  private final Function<Object[], Or<RESULT, Every<ERR>>> combiner;
+  private final OrFuture<?, ?>[] inputs;
+  // published to the combining thread by the countdown
+  private final Object[] results;
+  private final AtomicInteger remaining;
+
+  private Join(ExecutionContext<?> executionContext, Function<Object[], Or<RESULT, Every<ERR>>> combiner,
+               OrFuture<?, ?>[] inputs) {
+    super(executionContext);
+    this.combiner = combiner;
+    this.inputs = inputs;
+    this.results = new Object[inputs.length];
+    this.remaining = new AtomicInteger(inputs.length);
+  }
+
+  /**
+   * @param combiner the function of the results, in the order of the inputs
+   * @param inputs the futures to join
+   * @return a future completed by the combiner once every input completed
+   */
+  static <RESULT, ERR> OrFuture<RESULT, Every<ERR>>
+  of(ExecutionContext<?> executionContext, Function<Object[], Or<RESULT, Every<ERR>>> combiner, OrFuture<?, ?>... inputs) {
+    Join<RESULT, ERR> join = new Join<>(executionContext, combiner, inputs);
+    for (int i = 0; i < inputs.length; i++) join.await(i);
+    return join;
+  }
+
+  /**
+   * @return the result at the given index, typed as expected by the caller
+   */
+  @SuppressWarnings("unchecked")
+  static <T> T at(Object[] results, int index) {
+    return (T) results[index];
+  }
+
+  @SuppressWarnings("unchecked")
+  private void await(int index) {
+    OrFuture<Object, Object> input = (OrFuture<Object, Object>) inputs[index];
+    if (input instanceof OrFutureImpl) {
+      ((OrFutureImpl<Object, Object>) input).register(new Callback<Object, Object>() {
+        @Override
+        public void fire(Or<Object, Object> result) {
+          arrived(index, result);
+        }
+
+        @Override
+        public boolean isLive() {
+          return isNeeded();
+        }
+      });
+    } else {
+      input.onComplete(or -> arrived(index, or));
+    }
+  }
+
+  private void arrived(int index, Or<?, ?> result) {
+    results[index] = result;
+    if (remaining.decrementAndGet() != 0) return;
+    ExecutionMetrics metrics = executionContext.metrics;
+    if (metrics != null) metrics.callbackDispatched();
+    executionContext.getExecutor().execute(this);
+  }
+
+  @Override
+  public void run() {
+    try {
+      complete(combiner.apply(results));
+    } catch (Throwable t) {
+      handleUncaughtThrowable(t);
+    }
+  }
+
+  private void releaseInputs() {
+    for (OrFuture<?, ?> input : inputs) release(input);
+  }
+
+  @Override
+  void cancelled() {
+    releaseInputs();
+  }
+
+  @Override
+  void abandoned() {
+    releaseInputs();
+  }
+}
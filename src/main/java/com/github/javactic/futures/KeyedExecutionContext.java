@@ -0,0 +1,65 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Objects;
+
+/**
+ * A family of execution contexts, one per key, that run the tasks and callbacks of a key one after
+ * the other in submission order while different keys run in parallel on a shared executor.
+ * <p>
+ * Keys are spread over a fixed number of stripes, each with its own serial queue, so any number of
+ * keys can be used without a thread or an executor per key. Keys sharing a stripe are serialized
+ * together: more stripes means more parallelism, at the cost of a queue each.
+ * <p>
+ * As with a single-threaded executor, waiting from within a task of a key for a future of a key
+ * on the same stripe never returns.
+ *
+ * @param <BAD> the bad type
+ */
+public final class KeyedExecutionContext<BAD> {
+
+  private final ExecutionContext<BAD>[] stripes;
+
+  KeyedExecutionContext(ExecutionContext<BAD>[] stripes) {
+    this.stripes = stripes;
+  }
+
+  /**
+   * Returns the context serializing the work of the given key. The same key always gets the
+   * same context.
+   *
+   * @param key the key, whose hashCode picks the stripe
+   * @return the context of the given key
+   */
+  public ExecutionContext<BAD> forKey(Object key) {
+    Objects.requireNonNull(key, "key is null");
+    int h = key.hashCode();
+    return stripes[Math.floorMod(h ^ (h >>> 16), stripes.length)];
+  }
+
+  /**
+   * @return the number of stripes the keys are spread over
+   */
+  public int stripes() {
+    return stripes.length;
+  }
+}
@@ -0,0 +1,126 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations with a bounded relative error, in the style of HdrHistogram. Values are
+ * counted in buckets whose width doubles with every power of two, each power of two being split in
+ * 16 sub-buckets, which keeps the error of any percentile under 1/16 of its value. Recording takes
+ * no lock and each bucket is a striped counter, so concurrent recorders do not contend.
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BITS;
+  // a positive long has at most 63 significant bits
+  private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+  private final LongAdder[] counts = new LongAdder[BUCKETS];
+  private final LongAdder total = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+
+  public LatencyHistogram() {
+    for (int i = 0; i < BUCKETS; i++) counts[i] = new LongAdder();
+  }
+
+  /**
+   * Records a duration.
+   *
+   * @param nanos the duration in nanoseconds, negative values are recorded as 0
+   */
+  public void record(long nanos) {
+    long value = Math.max(0, nanos);
+    counts[index(value)].increment();
+    total.increment();
+    sum.add(value);
+  }
+
+  static int index(long value) {
+    if (value < SUB_BUCKETS) return (int) value;
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+    int sub = (int) (value >>> shift) - SUB_BUCKETS;
+    return (shift + 1) * SUB_BUCKETS + sub;
+  }
+
+  static long highestValue(int index) {
+    if (index < SUB_BUCKETS) return index;
+    int shift = index / SUB_BUCKETS - 1;
+    long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    // the last bucket ends at Long.MAX_VALUE
+    return lowest + ((1L << shift) - 1);
+  }
+
+  /**
+   * @return the number of recorded durations
+   */
+  public long count() {
+    return total.sum();
+  }
+
+  /**
+   * @return the mean of the recorded durations, zero if there is none
+   */
+  public Duration mean() {
+    long n = total.sum();
+    return n == 0 ? Duration.ZERO : Duration.ofNanos(sum.sum() / n);
+  }
+
+  /**
+   * Returns the duration that the given percentage of the recorded durations do not exceed, rounded
+   * up to the upper bound of its bucket. Concurrent recording may make the result slightly off.
+   *
+   * @param percentile the percentage, between 0 and 100
+   * @return the duration at the given percentile, zero if nothing was recorded
+   */
+  public Duration percentile(double percentile) {
+    if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile);
+    long[] snapshot = new long[BUCKETS];
+    long n = 0;
+    for (int i = 0; i < BUCKETS; i++) n += snapshot[i] = counts[i].sum();
+    if (n == 0) return Duration.ZERO;
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+    long seen = 0;
+    int last = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      if (snapshot[i] == 0) continue;
+      last = i;
+      seen += snapshot[i];
+      if (seen >= rank) break;
+    }
+    return Duration.ofNanos(highestValue(last));
+  }
+
+  /**
+   * @return the largest recorded duration, rounded up to the upper bound of its bucket
+   */
+  public Duration max() {
+    return percentile(100);
+  }
+
+  @Override
+  public String toString() {
+    return "LatencyHistogram(count=" + count() + ", mean=" + mean() + ", p50=" + percentile(50)
+      + ", p99=" + percentile(99) + ", max=" + max() + ")";
+  }
+}
@@ -0,0 +1,61 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.javactic.Or;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A CompletableFuture completed by an OrFuture. It is registered as a plain callback on its source,
+ * so it completes on the thread completing the source without any dispatch on an executor.
+ * Cancelling it cancels the source.
+ *
+ * @param <G> the success type
+ * @param <B> the failure type
+ */
+final class OrCompletableFuture<G, B> extends CompletableFuture<Or<G, B>> implements OrFutureImpl.Callback<G, B> {
+
+  private final OrFuture<G, B> source;
+  private final B cancelBad;
+
+  OrCompletableFuture(OrFuture<G, B> source, B cancelBad) {
+    this.source = source;
+    this.cancelBad = cancelBad;
+  }
+
+  @Override
+  public void fire(Or<G, B> result) {
+    complete(result);
+  }
+
+  @Override
+  public boolean isLive() {
+    return !isDone();
+  }
+
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    boolean cancelled = super.cancel(mayInterruptIfRunning);
+    if (cancelled) source.cancel(cancelBad);
+    return cancelled;
+  }
+}
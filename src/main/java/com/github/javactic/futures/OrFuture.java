@@ -28,7 +28,10 @@ import io.vavr.Tuple2;
 import io.vavr.control.Option;
 
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeoutException;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -62,6 +65,43 @@ public interface OrFuture<G, B> {
    */
   void onComplete(Consumer<? super Or<G, B>> action);
 
+  /**
+   * Cancels this future by completing it with a {@link com.github.javactic.Bad} containing the given
+   * reason, if it is not completed yet. The work that was going to complete it is abandoned: a task
+   * that has not started yet is skipped and a running one is interrupted. Cancellation propagates
+   * upstream through transformations to the futures this one was derived from, as long as nothing
+   * else depends on them.
+   * <p>
+   * The default implementation does not support cancellation and returns false.
+   *
+   * @param reason the failure to complete this future with
+   * @return true if this future was cancelled, false if it was already completed
+   */
+  default boolean cancel(B reason) {
+    return false;
+  }
+
+  /**
+   * Returns a CompletionStage completing with the result of this future. The stage is completed
+   * directly on the thread completing this future, without going through the executor, so its
+   * non-async dependent actions run on that thread too. Cancelling the stage, through the
+   * CompletableFuture it converts to, cancels this future with the given reason.
+   * <p>
+   * The default implementation completes the stage from a callback registered with
+   * {@link #onComplete(Consumer)}, so on the executor of that callback.
+   *
+   * @param cancelBad the failure to cancel this future with if the stage gets cancelled
+   * @return a stage completing with the result of this future
+   */
+  default CompletionStage<Or<G, B>> toCompletionStage(B cancelBad) {
+    CompletableFuture<Or<G, B>> stage = new CompletableFuture<>();
+    onComplete(stage::complete);
+    stage.whenComplete((or, t) -> {
+      if (stage.isCancelled()) cancel(cancelBad);
+    });
+    return stage;
+  }
+
   /**
    * Returns a some {@link Option} with an Or representing the value of this future if
    * the future is completed, none {@link Option} otherwise.
@@ -71,7 +111,8 @@ public interface OrFuture<G, B> {
   Option<Or<G, B>> getOption();
 
   /**
-   * Returns the result of this future, waiting at most the given duration.
+   * Returns the result of this future, waiting at most the given duration. The duration is honoured
+   * to the nanosecond, a duration too long to be counted in nanoseconds means waiting forever.
    * <p>
    * While occasionally useful, e.g. for testing, it is recommended that you avoid this method when possible in favor
    * of callbacks and combinators like onComplete. This method will block the thread on which it runs, and could
@@ -81,13 +122,13 @@ public interface OrFuture<G, B> {
    * @return the result of this future
    * @throws TimeoutException     if the result was not available within the given timeout
    * @throws InterruptedException if the current thread was interrupted while waiting
-   * @throws ArithmeticException if arithmetic overflow occurs when converting the given duration to milliseconds
    */
-  Or<G, B> get(Duration timeout) throws TimeoutException, InterruptedException, ArithmeticException;
+  Or<G, B> get(Duration timeout) throws TimeoutException, InterruptedException;
 
   /**
    * Returns the result of this future, waiting at most the given duration, or returns
-   * the a Bad containing the given timeoutBad.
+   * the a Bad containing the given timeoutBad. The duration is honoured to the nanosecond, a duration
+   * too long to be counted in nanoseconds means waiting forever.
    * <p>
    * While occasionally useful, e.g. for testing, it is recommended that you avoid this method when possible in favor
    * of callbacks and combinators like onComplete. This method will block the thread on which it runs, and could
@@ -97,9 +138,8 @@ public interface OrFuture<G, B> {
    * @param timeoutBad the failure to return if the timeout expired
    * @return the result of this future or a Bad containing the given value
    * @throws InterruptedException if the current thread was interrupted while waiting
-   * @throws ArithmeticException if arithmetic overflow occurs when converting the given duration to milliseconds
    */
-  Or<G, B> get(Duration timeout, B timeoutBad) throws InterruptedException, ArithmeticException;
+  Or<G, B> get(Duration timeout, B timeoutBad) throws InterruptedException;
 
   /**
    * Returns the result of this future, waiting forever. This method is meant to be used in test cases only or
@@ -115,6 +155,30 @@ public interface OrFuture<G, B> {
    */
   Or<G, B> getUnsafe() throws CompletionException;
 
+  /**
+   * Returns a future that completes with the result of this future if it arrives within the given
+   * duration, or with a Bad containing the given timeoutBad otherwise. Unlike {@link #get(Duration, Object)}
+   * this does not block: the timer of the execution context expires the returned future. On expiry, this
+   * future is released, which cancels it if nothing else depends on it.
+   * <p>
+   * The default implementation leaves this future alone on expiry, and runs the callbacks of the
+   * returned future on the common fork join pool.
+   *
+   * @param timeout    the duration to wait for the result
+   * @param timeoutBad the failure to complete with if the timeout expires
+   * @return a future completing with the result of this one, or with the given failure on timeout
+   */
+  default OrFuture<G, B> within(Duration timeout, B timeoutBad) {
+    ExecutionContext<B> context = ExecutionContext.of(t -> timeoutBad, ForkJoinPool.commonPool());
+    OrPromise<G, B> promise = context.promise();
+    TimerWheel.Timeout expiry = context.timeout(() -> promise.tryFailure(timeoutBad), ExecutionContext.nanos(timeout));
+    onComplete(or -> {
+      expiry.cancel();
+      promise.tryComplete(or);
+    });
+    return promise.future();
+  }
+
   /**
    * Returns an accumulating version of this future.
    *
@@ -0,0 +1,286 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.javactic.Or;
+import io.vavr.CheckedFunction1;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache of the futures computed by a loader, keyed by its input. Concurrent requests for a key
+ * whose value is being loaded share the future of the ongoing load instead of starting another one.
+ * Completed values are kept until they are older than the time to live, or until the cache grows
+ * beyond its maximum size, in which case the oldest entries are evicted first. Entries being loaded
+ * are not evicted, so the cache may hold more entries than its maximum size while many loads are
+ * in progress.
+ * <p>
+ * The futures handed out are shared by every caller asking for the same key: cancelling one
+ * cancels the load for all of them. Derive a future with {@link OrFuture#within} or a transformation
+ * to give up on the value without affecting the other callers.
+ * <p>
+ * Create instances with {@link ExecutionContext#cache(CheckedFunction1, int, Duration, boolean)}.
+ *
+ * @param <K> the key type
+ * @param <G> the success type
+ * @param <B> the failure type
+ */
+public final class OrFutureCache<K, G, B> {
+
+  private final ExecutionContext<B> context;
+  private final CheckedFunction1<? super K, ? extends Or<? extends G, ? extends B>> loader;
+  private final int maximumSize;
+  private final long timeToLive;
+  private final boolean cacheBads;
+  private final ConcurrentMap<K, Entry<K, G, B>> entries = new ConcurrentHashMap<>();
+  // the entries by insertion order, an entry is added here before it is added to the map
+  private final ConcurrentSkipListMap<Long, Entry<K, G, B>> order = new ConcurrentSkipListMap<>();
+  private final AtomicLong insertions = new AtomicLong();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder goodLoads = new LongAdder();
+  private final LongAdder badLoads = new LongAdder();
+  private final LongAdder loadTime = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  OrFutureCache(ExecutionContext<B> context, CheckedFunction1<? super K, ? extends Or<? extends G, ? extends B>> loader,
+                int maximumSize, Duration timeToLive, boolean cacheBads) {
+    if (maximumSize <= 0) throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+    this.context = context;
+    this.loader = loader;
+    this.maximumSize = maximumSize;
+    this.timeToLive = ExecutionContext.nanos(timeToLive);
+    this.cacheBads = cacheBads;
+  }
+
+  /**
+   * Returns the future of the value of the given key, loading it if it is neither cached nor
+   * being loaded.
+   *
+   * @param key the key
+   * @return the future of the value of the key
+   */
+  public OrFuture<G, B> get(K key) {
+    for (;;) {
+      Entry<K, G, B> entry = entries.get(key);
+      if (entry != null) {
+        if (!entry.expired(timeToLive)) {
+          hits.increment();
+          return entry.future;
+        }
+        if (remove(entry)) evictions.increment();
+        continue;
+      }
+      Entry<K, G, B> fresh = new Entry<>(key, new OrFutureImpl<>(context, true), insertions.getAndIncrement());
+      order.put(fresh.insertion, fresh);
+      if (entries.putIfAbsent(key, fresh) != null) {
+        order.remove(fresh.insertion);
+        continue;
+      }
+      misses.increment();
+      load(fresh);
+      evictOverflow();
+      return fresh.future;
+    }
+  }
+
+  private void load(Entry<K, G, B> entry) {
+    long start = System.nanoTime();
+    OrFuture<G, B> loading = context.future(() -> loader.apply(entry.key));
+    OrFutureImpl.propagate(loading, entry.future);
+    // cancelling the shared future abandons the load
+    entry.future.register(new OrFutureImpl.Callback<G, B>() {
+      @Override
+      public void fire(Or<G, B> result) {
+        long now = System.nanoTime();
+        loadTime.add(now - start);
+        entry.completedAt = now;
+        entry.completed = true;
+        if (result.isGood()) goodLoads.increment();
+        else {
+          badLoads.increment();
+          if (!cacheBads) remove(entry);
+        }
+        OrFutureImpl.release(loading);
+      }
+
+      @Override
+      public boolean isLive() {
+        return false;
+      }
+    });
+  }
+
+  private void evictOverflow() {
+    Iterator<Entry<K, G, B>> oldest = order.values().iterator();
+    while (entries.size() > maximumSize && oldest.hasNext()) {
+      Entry<K, G, B> entry = oldest.next();
+      // evicting a load in progress would let the next caller start another one
+      if (entry.future.isCompleted() && remove(entry)) evictions.increment();
+    }
+  }
+
+  private boolean remove(Entry<K, G, B> entry) {
+    if (!entries.remove(entry.key, entry)) return false;
+    order.remove(entry.insertion, entry);
+    return true;
+  }
+
+  /**
+   * Removes the entry of the given key. A load in progress goes on, but its value is not cached.
+   *
+   * @param key the key
+   */
+  public void invalidate(K key) {
+    Entry<K, G, B> entry = entries.get(key);
+    if (entry != null) remove(entry);
+  }
+
+  /**
+   * Removes every entry.
+   */
+  public void invalidateAll() {
+    entries.values().forEach(this::remove);
+  }
+
+  /**
+   * @return the number of entries, counting the ones being loaded and the expired ones not evicted yet
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return a snapshot of the statistics of this cache
+   */
+  public Stats stats() {
+    return new Stats(hits.sum(), misses.sum(), goodLoads.sum(), badLoads.sum(), loadTime.sum(), evictions.sum());
+  }
+
+  private static final class Entry<K, G, B> {
+    final K key;
+    final OrFutureImpl<G, B> future;
+    final long insertion;
+    volatile boolean completed;
+    volatile long completedAt;
+
+    Entry(K key, OrFutureImpl<G, B> future, long insertion) {
+      this.key = key;
+      this.future = future;
+      this.insertion = insertion;
+    }
+
+    boolean expired(long timeToLive) {
+      return completed && System.nanoTime() - completedAt > timeToLive;
+    }
+  }
+
+  /**
+   * Statistics of a cache, counted since its creation.
+   */
+  public static final class Stats {
+    private final long hits;
+    private final long misses;
+    private final long goodLoads;
+    private final long badLoads;
+    private final long loadTime;
+    private final long evictions;
+
+    Stats(long hits, long misses, long goodLoads, long badLoads, long loadTime, long evictions) {
+      this.hits = hits;
+      this.misses = misses;
+      this.goodLoads = goodLoads;
+      this.badLoads = badLoads;
+      this.loadTime = loadTime;
+      this.evictions = evictions;
+    }
+
+    /**
+     * @return the number of requests served from the cache, including the ones sharing a load in progress
+     */
+    public long hits() {
+      return hits;
+    }
+
+    /**
+     * @return the number of requests that started a load
+     */
+    public long misses() {
+      return misses;
+    }
+
+    /**
+     * @return the ratio of hits over all requests, 1 if there was no request
+     */
+    public double hitRate() {
+      long requests = hits + misses;
+      return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    /**
+     * @return the number of loads that completed with a Good
+     */
+    public long goodLoads() {
+      return goodLoads;
+    }
+
+    /**
+     * @return the number of loads that completed with a Bad
+     */
+    public long badLoads() {
+      return badLoads;
+    }
+
+    /**
+     * @return the time spent in completed loads, summed up
+     */
+    public Duration totalLoadTime() {
+      return Duration.ofNanos(loadTime);
+    }
+
+    /**
+     * @return the average time of a completed load, zero if none completed
+     */
+    public Duration averageLoadTime() {
+      long loads = goodLoads + badLoads;
+      return loads == 0 ? Duration.ZERO : Duration.ofNanos(loadTime / loads);
+    }
+
+    /**
+     * @return the number of entries removed because they expired or the cache was full
+     */
+    public long evictions() {
+      return evictions;
+    }
+
+    @Override
+    public String toString() {
+      return "Stats(hits=" + hits + ", misses=" + misses + ", goodLoads=" + goodLoads + ", badLoads=" + badLoads
+        + ", averageLoadTime=" + averageLoadTime() + ", evictions=" + evictions + ")";
+    }
+  }
+}
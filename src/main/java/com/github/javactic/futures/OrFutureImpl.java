@@ -29,27 +29,82 @@ import io.vavr.Tuple2;
 import io.vavr.control.Option;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
-import java.util.Queue;
 import java.util.concurrent.CompletionException;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
+/**
+ * The default future implementation. All of its state lives in a single field that is either
+ * <ul>
+ *   <li>null, when the future is pending and nobody is listening</li>
+ *   <li>a {@link Callbacks} stack, when the future is pending with registered callbacks</li>
+ *   <li>an {@link Or}, once the future is completed</li>
+ *   <li>a {@link Link} to another future, once it completes together with that one</li>
+ * </ul>
+ * Transitions are done with compare-and-set only, so neither completing nor registering
+ * a callback ever takes a lock, and the callbacks become garbage as soon as the future completes.
+ */
 class OrFutureImpl<G, B> implements OrFuture<G, B> {
 
-  private final ExecutionContext<?> executionContext;
-  private final AtomicReference<Or<G, B>> value = new AtomicReference<>();
-  private final CountDownLatch finished = new CountDownLatch(1);
-  private final Queue<Consumer<? super Or<G, B>>> actions = new ConcurrentLinkedQueue<>();
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<OrFutureImpl, Object> STATE =
+    AtomicReferenceFieldUpdater.newUpdater(OrFutureImpl.class, Object.class, "state");
+
+  final ExecutionContext<?> executionContext;
+  /**
+   * True when the bad values of the execution context are known to be valid bad values of this
+   * future, which is what allows completing it with the Bad configured for an expired deadline.
+   */
+  final boolean contextBad;
+  private volatile Object state;
+  // where this future was created, if it was sampled
+  private final CreationSite site;
+  // set before the future is published
+  private StallWatchdog.Entry watched;
 
   OrFutureImpl(ExecutionContext<?> executionContext) {
+    this(executionContext, false);
+  }
+
+  OrFutureImpl(ExecutionContext<?> executionContext, boolean contextBad) {
     this.executionContext = executionContext;
+    this.contextBad = contextBad;
+    ExecutionMetrics metrics = executionContext.metrics;
+    if (metrics != null) metrics.futureCreated();
+    CreationTracker tracker = executionContext.tracker;
+    this.site = tracker == null ? null : tracker.sample(this);
+  }
+
+  OrFutureImpl(ExecutionContext<?> executionContext, Or<G, B> value, boolean contextBad) {
+    this(executionContext, contextBad);
+    this.state = Objects.requireNonNull(value, "cannot complete with null");
+    completed(value);
+  }
+
+  private void completed(Or<G, B> result) {
+    ExecutionMetrics metrics = executionContext.metrics;
+    if (metrics != null) metrics.futureCompleted(result.isGood());
+    if (site != null) executionContext.tracker.completed(site);
+    StallWatchdog.Entry entry = watched;
+    if (entry != null) executionContext.watchdog.completed(entry);
+  }
+
+  /**
+   * Hands this future to the watchdog of its context, if there is one, to be reported if it stays
+   * pending for too long.
+   */
+  void watch() {
+    StallWatchdog watchdog = executionContext.watchdog;
+    if (watchdog != null) watched = watchdog.watch(this);
   }
 
   @SuppressWarnings("unchecked")
@@ -59,51 +114,166 @@ class OrFutureImpl<G, B> implements OrFuture<G, B> {
 
   @Override
   public boolean isCompleted() {
-    return value.get() != null;
+    Object current = state;
+    if (current instanceof Link) return root().isCompleted();
+    return current instanceof Or;
   }
 
   boolean complete(Or<G, B> result) {
     Objects.requireNonNull(result, "cannot complete with null");
-    if (value.compareAndSet(null, result)) {
-      finished.countDown();
-      // sync necessary so onComplete does not get called twice for an action
-      synchronized (actions) {
-        actions.forEach(this::perform);
+    for (;;) {
+      Object current = state;
+      if (current instanceof Or) return false;
+      if (current instanceof Link) return root().complete(result);
+      if (STATE.compareAndSet(this, current, result)) {
+        completed(result);
+        if (current != null) fire(Callbacks.ordered(current), result);
+        return true;
       }
-      return true;
+    }
+  }
+
+  /**
+   * Completes this future like {@link #complete(Or)} does, except when the first registered
+   * callback is a transformation running on the same executor. That one is not dispatched but
+   * returned ready to run, so that a chain of transformations runs in place within a single task.
+   *
+   * @param result the value to complete this future with
+   * @return the transformation to run next, or null if there is none
+   */
+  Transformation<G, B, ?, ?> completeFused(Or<G, B> result) {
+    for (;;) {
+      Object current = state;
+      if (current instanceof Or) return null;
+      if (current instanceof Link) return root().completeFused(result);
+      if (STATE.compareAndSet(this, current, result)) {
+        completed(result);
+        if (current == null) return null;
+        Callbacks<G, B> callbacks = Callbacks.ordered(current);
+        Transformation<G, B, ?, ?> fused = null;
+        if (callbacks.callback instanceof Transformation) {
+          Transformation<G, B, ?, ?> first = (Transformation<G, B, ?, ?>) callbacks.callback;
+          if (first.executionContext.getExecutor() == executionContext.getExecutor()) {
+            fused = first;
+            fused.arm(result);
+            callbacks = callbacks.next;
+          }
+        }
+        if (callbacks != null) fire(callbacks, result);
+        return fused;
+      }
+    }
+  }
+
+  private void fire(Callbacks<G, B> callbacks, Or<G, B> result) {
+    Executor executor = executionContext.getExecutor();
+    if (callbacks.next != null && executor instanceof BatchingExecutor) {
+      // everything released by this completion goes into one batch
+      ((BatchingExecutor) executor).executeAll(() -> Callbacks.fireAll(callbacks, result));
     } else {
-      return false;
+      Callbacks.fireAll(callbacks, result);
     }
   }
 
   @Override
   public void onComplete(Consumer<? super Or<G, B>> action) {
     Objects.requireNonNull(action, "action is null");
-    if (isCompleted()) {
-      perform(action);
+    register(new ActionCallback<>(executionContext, action, null));
+  }
+
+  @Override
+  public boolean cancel(B reason) {
+    if (!complete(Bad.of(reason))) return false;
+    // a linked future was completed through its root, which tracks the work in flight
+    root().cancelled();
+    return true;
+  }
+
+  /**
+   * Called once this future got cancelled, to stop the work that was going to complete it.
+   */
+  void cancelled() {
+  }
+
+  /**
+   * Tells this future that one of the futures depending on it does not need its result anymore.
+   * If none of the remaining callbacks needs it either, the work that was going to complete this
+   * future is abandoned.
+   */
+  @SuppressWarnings("unchecked")
+  void release() {
+    Object current = state;
+    if (current instanceof Or) return;
+    if (current instanceof Link) {
+      root().release();
+      return;
+    }
+    for (Callbacks<G, B> c = (Callbacks<G, B>) current; c != null; c = c.next) {
+      if (c.callback.isLive()) return;
+    }
+    abandoned();
+  }
+
+  /**
+   * Called once nothing depends on the result of this future anymore.
+   */
+  void abandoned() {
+  }
+
+  /**
+   * @return false once this future is completed, or once the work that was going to complete it was abandoned
+   */
+  boolean isNeeded() {
+    return !isCompleted();
+  }
+
+  static void release(OrFuture<?, ?> future) {
+    if (future instanceof OrFutureImpl) ((OrFutureImpl<?, ?>) future).release();
+  }
+
+  /**
+   * Completes the target with the result of the source as soon as it is available.
+   */
+  @SuppressWarnings("unchecked")
+  static <G, B> void propagate(OrFuture<? extends G, ? extends B> source, OrFutureImpl<G, B> target) {
+    if (source instanceof OrFutureImpl) ((OrFutureImpl<G, B>) source).register(new CompletingCallback<>(target));
+    else source.onComplete(target::tryComplete);
+  }
+
+  /**
+   * Registers the action on the source on behalf of the dependent future. Once the dependent
+   * is completed, the action does not count as needing the result of the source anymore.
+   */
+  static <G, B> void onComplete(OrFuture<G, B> source, OrFuture<?, ?> dependent, Consumer<? super Or<G, B>> action) {
+    if (source instanceof OrFutureImpl) {
+      OrFutureImpl<G, B> impl = (OrFutureImpl<G, B>) source;
+      impl.register(new ActionCallback<>(impl.executionContext, action, dependent));
     } else {
-      // sync necessary so onComplete does not get called twice for an action
-      synchronized (actions) {
-        if (isCompleted()) {
-          perform(action);
-        } else {
-          actions.add(action);
-        }
-      }
+      source.onComplete(action);
     }
   }
 
-  private void perform(Consumer<? super Or<G, B>> action) {
-    executionContext.getExecutor().execute(() -> {
-      try {
-        action.accept(value.get());
-      } catch (Throwable t) {
-        handleUncaughtThrowable(t);
+  /**
+   * Pushes the given callback on the pending stack, or fires it right away if this future
+   * is already completed.
+   */
+  @SuppressWarnings("unchecked")
+  void register(Callback<G, B> callback) {
+    for (;;) {
+      Object current = state;
+      if (current instanceof Or) {
+        callback.fire((Or<G, B>) current);
+        return;
       }
-    });
+      if (current instanceof Link) {
+        root().register(callback);
+        return;
+      }
+      if (STATE.compareAndSet(this, current, new Callbacks<>(callback, (Callbacks<G, B>) current))) return;
+    }
   }
 
-  private void handleUncaughtThrowable(Throwable t) {
+  static void handleUncaughtThrowable(Throwable t) {
     Thread.UncaughtExceptionHandler handler = Thread.currentThread().getUncaughtExceptionHandler();
     if(handler != null) handler.uncaughtException(Thread.currentThread(), t);
     else {
@@ -113,23 +283,165 @@ class OrFutureImpl<G, B> implements OrFuture<G, B> {
     }
   }
 
+  @SuppressWarnings("unchecked")
+  Or<G, B> value() {
+    Object current = state;
+    if (current instanceof Link) return root().value();
+    return current instanceof Or ? (Or<G, B>) current : null;
+  }
+
+  /**
+   * Makes this pending future complete together with the given one. Completing, cancelling, or
+   * registering a callback on this future then acts on the other one, so that nothing needs to keep
+   * this future around anymore. If this future is already completed, its value is passed on to the
+   * other one.
+   * <p>
+   * A future that already has callbacks is depended upon elsewhere, it is not linked so that
+   * cancelling the other one does not complete those dependents.
+   *
+   * @return false if this future has callbacks, is already linked to another one, or would be linked to itself
+   */
+  @SuppressWarnings("unchecked")
+  boolean linkTo(OrFutureImpl<G, B> target) {
+    OrFutureImpl<G, B> root = target.root();
+    if (root == this) return false;
+    Link<G, B> link = new Link<>(root);
+    for (;;) {
+      Object current = state;
+      if (current instanceof Or) {
+        root.complete((Or<G, B>) current);
+        return true;
+      }
+      if (current != null) return false;
+      if (STATE.compareAndSet(this, null, link)) {
+        ExecutionMetrics metrics = executionContext.metrics;
+        if (metrics != null) metrics.futureMerged();
+        if (site != null) executionContext.tracker.completed(site);
+        return true;
+      }
+    }
+  }
+
+  boolean isLinked() {
+    return state instanceof Link;
+  }
+
+  /**
+   * @return the future this one completes together with, following links, or this future if it is not linked
+   */
+  @SuppressWarnings("unchecked")
+  OrFutureImpl<G, B> root() {
+    Object current = state;
+    if (!(current instanceof Link)) return this;
+    OrFutureImpl<G, B> target = ((Link<G, B>) current).target;
+    OrFutureImpl<G, B> root = target;
+    for (Object next = root.state; next instanceof Link; next = root.state) root = ((Link<G, B>) next).target;
+    // shortcut the chain for the next time
+    if (root != target) STATE.compareAndSet(this, current, new Link<>(root));
+    return root;
+  }
+
+  /**
+   * Parks the calling thread until this future completes or the given time elapses.
+   *
+   * @return the value of this future, or null if it did not complete in time
+   */
+  private Or<G, B> await(long nanos) throws InterruptedException {
+    Or<G, B> result = value();
+    if (result != null || nanos <= 0) return result;
+    if (Thread.interrupted()) throw new InterruptedException();
+    Waiter<G, B> waiter = new Waiter<>(Thread.currentThread());
+    register(waiter);
+    long start = System.nanoTime();
+    while ((result = value()) == null) {
+      if (nanos == Long.MAX_VALUE) LockSupport.park(this);
+      else {
+        long left = nanos - (System.nanoTime() - start);
+        if (left <= 0) {
+          leave(waiter);
+          return null;
+        }
+        LockSupport.parkNanos(this, left);
+      }
+      if (Thread.interrupted()) {
+        leave(waiter);
+        throw new InterruptedException();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Removes the given waiter, along with the other waiters that gave up, from the callbacks of
+   * this future, so that polling a pending future does not grow its callbacks.
+   */
+  @SuppressWarnings("unchecked")
+  private void leave(Waiter<G, B> waiter) {
+    waiter.leave();
+    OrFutureImpl<G, B> target = root();
+    for (;;) {
+      Object current = target.state;
+      if (!(current instanceof Callbacks)) return;
+      // the stack is rebuilt rather than unlinked in place, a completing thread may be reversing it
+      List<Callback<G, B>> live = new ArrayList<>();
+      for (Callbacks<G, B> c = (Callbacks<G, B>) current; c != null; c = c.next) {
+        if (c.callback.isLive() || !(c.callback instanceof Waiter)) live.add(c.callback);
+      }
+      Callbacks<G, B> pruned = null;
+      for (int i = live.size() - 1; i >= 0; i--) pruned = new Callbacks<>(live.get(i), pruned);
+      if (STATE.compareAndSet(target, current, pruned)) return;
+    }
+  }
+
+  /**
+   * @return the number of callbacks registered on this future while it is pending
+   */
+  @SuppressWarnings("unchecked")
+  int callbackCount() {
+    Object current = state;
+    if (current instanceof Link) return root().callbackCount();
+    int count = 0;
+    if (current instanceof Callbacks) for (Callbacks<G, B> c = (Callbacks<G, B>) current; c != null; c = c.next) count++;
+    return count;
+  }
+
   @Override
   public Option<Or<G, B>> getOption() {
-    return Option.of(value.get());
+    return Option.of(value());
   }
 
   @Override
   public Or<G, B> get(Duration timeout) throws InterruptedException, TimeoutException {
-    if (finished.await(timeout.toMillis(), TimeUnit.MILLISECONDS)) return value.get();
-    else throw new TimeoutException("timeout waiting for result");
+    Or<G, B> result = await(ExecutionContext.nanos(timeout));
+    if (result != null) return result;
+    TimeoutException timeoutException = new TimeoutException("timeout waiting for result");
+    if (site != null) timeoutException.initCause(site);
+    throw timeoutException;
   }
 
   @Override
   public Or<G, B> get(Duration timeout, B timeoutBad) throws InterruptedException {
-    if (finished.await(timeout.toMillis(), TimeUnit.MILLISECONDS)) return value.get();
+    Or<G, B> result = await(ExecutionContext.nanos(timeout));
+    if (result != null) return result;
     else return Bad.of(timeoutBad);
   }
 
+  @Override
+  public OrFuture<G, B> within(Duration timeout, B timeoutBad) {
+    if (isCompleted()) return this;
+    Within<G, B> within = new Within<>(executionContext, this, contextBad);
+    register(within);
+    within.scheduled(executionContext.timeout(() -> within.cancel(timeoutBad), ExecutionContext.nanos(timeout)));
+    return within;
+  }
+
+  @Override
+  public CompletionStage<Or<G, B>> toCompletionStage(B cancelBad) {
+    OrCompletableFuture<G, B> stage = new OrCompletableFuture<>(this, cancelBad);
+    register(stage);
+    return stage;
+  }
+
   @Override
   public Or<G, B> getUnsafe() throws CompletionException {
     try {
@@ -147,42 +459,38 @@ class OrFutureImpl<G, B> implements OrFuture<G, B> {
 
   @Override
   public OrFuture<G, B> andThen(Consumer<? super Or<G, B>> consumer) {
-    OrPromise<G, B> p = executionContext.promise();
-    onComplete(or -> {
+    return transformation(contextBad, or -> {
       try {
         consumer.accept(or);
       } catch (Throwable t) {
         handleUncaughtThrowable(t);
-      } finally {
-        p.complete(or);
       }
+      return or;
     });
-    return p.future();
   }
 
   @Override
   public OrFuture<G, B> filter(Function<? super G, ? extends Validation<? extends B>> validator) {
-    OrPromise<G, B> promise = executionContext.promise();
-    onComplete(or -> promise.complete(or.filter(validator)));
-    return promise.future();
+    return transformation(contextBad, or -> or.filter(validator));
   }
 
+  @Override
+  public <H> OrFuture<H, B> map(Function<? super G, ? extends H> mapper) {
+    return transformation(contextBad, or -> or.map(mapper));
+  }
+
+  @SuppressWarnings("unchecked")
   @Override
   public <H> OrFuture<H, B> flatMap(Function<? super G, ? extends OrFuture<? extends H, ? extends B>> mapper) {
-    OrPromise<H, B> promise = executionContext.promise();
-    onComplete(or ->
-        or.forEach(
-          g -> promise.completeWith(mapper.apply(g)),
-          promise::failure)
-    );
-    return promise.future();
+    return flatTransformation(contextBad, or -> {
+      if (or.isGood()) return mapper.apply(or.get());
+      else return new CompletedOrFuture<>(executionContext, (Or<H, B>) or, contextBad);
+    });
   }
 
   @Override
   public OrFuture<G, B> recover(Function<? super B, ? extends G> fn) {
-    OrPromise<G, B> promise = executionContext.promise();
-    onComplete(or -> promise.complete(or.recover(fn)));
-    return promise.future();
+    return transformation(contextBad, or -> or.recover(fn));
   }
 
   @SuppressWarnings("unchecked")
@@ -196,16 +504,26 @@ class OrFutureImpl<G, B> implements OrFuture<G, B> {
 
   @Override
   public <H, C> OrFuture<H, C> transform(Function<? super Or<? extends G, ? extends B>, ? extends Or<? extends H, ? extends C>> f) {
-    OrPromise<H, C> promise = executionContext.promise();
-    onComplete(or -> promise.complete(f.apply(or)));
-    return promise.future();
+    return transformation(false, f);
+  }
+
+  private <H, C> OrFuture<H, C> transformation(boolean contextBad,
+                                               Function<? super Or<G, B>, ? extends Or<? extends H, ? extends C>> f) {
+    Transformation<G, B, H, C> transformation = new Transformation<>(executionContext, this, contextBad, f);
+    register(transformation);
+    return transformation;
   }
 
   @Override
   public <H, C> OrFuture<H, C> transformWith(Function<? super Or<? extends G, ? extends B>, ? extends OrFuture<? extends H, ? extends C>> f) {
-    OrPromise<H, C> promise = executionContext.promise();
-    onComplete(or -> promise.completeWith(f.apply(or)));
-    return promise.future();
+    return flatTransformation(false, f);
+  }
+
+  private <H, C> OrFuture<H, C> flatTransformation(boolean contextBad,
+                                                   Function<? super Or<G, B>, ? extends OrFuture<? extends H, ? extends C>> f) {
+    FlatTransformation<G, B, H, C> transformation = new FlatTransformation<>(executionContext, this, contextBad, f);
+    register(transformation);
+    return transformation;
   }
 
   @Override
@@ -219,4 +537,184 @@ class OrFutureImpl<G, B> implements OrFuture<G, B> {
     onComplete(thisOr -> that.onComplete(thatOr -> promise.complete(thisOr.zipWith(thatOr, f))));
     return promise.future();
   }
+
+  @Override
+  public OrFuture<G, B> with(ExecutionContext<? extends B> context) {
+    OrFutureImpl<G, B> future = new OrFutureImpl<>(context, true);
+    propagate(this, future);
+    return future;
+  }
+
+  // ------------------------------------------------------------------------------------------------
+  // CALLBACKS
+  // ------------------------------------------------------------------------------------------------
+
+  /**
+   * Something to notify once a future completes.
+   */
+  interface Callback<G, B> {
+    void fire(Or<G, B> result);
+
+    /**
+     * @return false if this callback does not need the result anymore
+     */
+    default boolean isLive() {
+      return true;
+    }
+  }
+
+  /**
+   * Stack of pending callbacks. A stack is never modified while it is attached to its future,
+   * it is only reversed for firing once the completion has detached it.
+   */
+  static final class Callbacks<G, B> {
+    final Callback<G, B> callback;
+    Callbacks<G, B> next;
+
+    Callbacks(Callback<G, B> callback, Callbacks<G, B> next) {
+      this.callback = callback;
+      this.next = next;
+    }
+
+    /**
+     * Reverses a detached stack so that it lists the callbacks in registration order.
+     */
+    @SuppressWarnings("unchecked")
+    static <G, B> Callbacks<G, B> ordered(Object detached) {
+      Callbacks<G, B> stack = (Callbacks<G, B>) detached;
+      Callbacks<G, B> reversed = null;
+      while (stack != null) {
+        Callbacks<G, B> next = stack.next;
+        stack.next = reversed;
+        reversed = stack;
+        stack = next;
+      }
+      return reversed;
+    }
+
+    static <G, B> void fireAll(Callbacks<G, B> ordered, Or<G, B> result) {
+      for (; ordered != null; ordered = ordered.next) {
+        ordered.callback.fire(result);
+      }
+    }
+  }
+
+  /**
+   * Runs an action on the executor of the context, possibly on behalf of a dependent future, with
+   * the propagated state of the thread registering it.
+   */
+  static final class ActionCallback<G, B> implements Callback<G, B>, Runnable {
+    private final ExecutionContext<?> executionContext;
+    private final Consumer<? super Or<G, B>> action;
+    private final OrFuture<?, ?> dependent;
+    private final Runnable dispatched;
+    private Or<G, B> result;
+
+    ActionCallback(ExecutionContext<?> executionContext, Consumer<? super Or<G, B>> action, OrFuture<?, ?> dependent) {
+      this.executionContext = executionContext;
+      this.action = action;
+      this.dependent = dependent;
+      this.dispatched = executionContext.capturing(this);
+    }
+
+    @Override
+    public boolean isLive() {
+      if (dependent instanceof OrFutureImpl) return ((OrFutureImpl<?, ?>) dependent).isNeeded();
+      return dependent == null || !dependent.isCompleted();
+    }
+
+    @Override
+    public void fire(Or<G, B> result) {
+      // safely published to the running thread by the executor
+      this.result = result;
+      ExecutionMetrics metrics = executionContext.metrics;
+      if (metrics != null) metrics.callbackDispatched();
+      executionContext.getExecutor().execute(dispatched);
+    }
+
+    @Override
+    public void run() {
+      try {
+        action.accept(result);
+      } catch (Throwable t) {
+        OrFutureImpl.handleUncaughtThrowable(t);
+      }
+    }
+  }
+
+  /**
+   * Completes another future on the executor of that future. Going through the executor rather
+   * than completing in place keeps long chains of completions from growing the stack.
+   */
+  static final class CompletingCallback<G, B> implements Callback<G, B>, Runnable {
+    private final OrFutureImpl<G, B> target;
+    private final Runnable dispatched;
+    private Or<G, B> result;
+
+    CompletingCallback(OrFutureImpl<G, B> target) {
+      this.target = target;
+      this.dispatched = target.executionContext.capturing(this);
+    }
+
+    @Override
+    public void fire(Or<G, B> result) {
+      // safely published to the running thread by the executor
+      this.result = result;
+      ExecutionMetrics metrics = target.executionContext.metrics;
+      if (metrics != null) metrics.callbackDispatched();
+      target.executionContext.getExecutor().execute(dispatched);
+    }
+
+    @Override
+    public void run() {
+      target.complete(result);
+    }
+
+    @Override
+    public boolean isLive() {
+      return target.isNeeded();
+    }
+  }
+
+  /**
+   * State of a future that completes together with another one.
+   */
+  static final class Link<G, B> {
+    final OrFutureImpl<G, B> target;
+
+    Link(OrFutureImpl<G, B> target) {
+      this.target = target;
+    }
+  }
+
+  /**
+   * Wakes up a thread blocked in one of the get methods. Parking holds no monitor, so a virtual
+   * thread waiting on a future unmounts from its carrier.
+   */
+  static final class Waiter<G, B> implements Callback<G, B> {
+    private volatile Thread thread;
+
+    Waiter(Thread thread) {
+      this.thread = thread;
+    }
+
+    /**
+     * Called by the waiting thread when it gives up, so that the thread is not kept reachable
+     * by the future until it completes, and so that the waiter can be removed from it.
+     */
+    void leave() {
+      thread = null;
+    }
+
+    @Override
+    public void fire(Or<G, B> result) {
+      Thread t = thread;
+      if (t != null) LockSupport.unpark(t);
+    }
+
+    @Override
+    public boolean isLive() {
+      return thread != null;
+    }
+  }
 }
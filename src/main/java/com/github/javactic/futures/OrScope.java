@@ -0,0 +1,233 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.javactic.Bad;
+import com.github.javactic.Every;
+import com.github.javactic.One;
+import com.github.javactic.Or;
+import io.vavr.CheckedFunction0;
+import io.vavr.collection.Vector;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A lexical scope in which tasks are forked on an execution context, then joined into a single
+ * result accumulating their failures. Closing the scope cancels the tasks still running and waits
+ * until none of them runs anymore, so that no task outlives it:
+ * <pre>{@code
+ * try (OrScope<User, String> scope = context.scope(OrScope.Policy.ACCUMULATE)) {
+ *   scope.fork(() -> loadUser(1));
+ *   scope.fork(() -> loadUser(2));
+ *   Or<Vector<User>, Every<String>> users = scope.join();
+ * }
+ * }</pre>
+ * With the {@link Policy#FAIL_FAST} policy, the first failure cancels the other tasks and is the
+ * only one reported by the join. Tasks run on the executor of the context, which may be one running
+ * each of them on a virtual thread, see {@link ExecutionContext#ofVirtualThreads}.
+ * <p>
+ * A scope belongs to the thread that opened it: only that thread can fork, join and close it.
+ *
+ * @param <G> the success type of the tasks
+ * @param <ERR> the failure type of the tasks, which is the one of the context
+ */
+public final class OrScope<G, ERR> implements AutoCloseable {
+
+  /**
+   * How the failures of the tasks of a scope are handled.
+   */
+  public enum Policy {
+    /** Every task runs to completion and every failure is accumulated. */
+    ACCUMULATE,
+    /** The first failure cancels the other tasks. */
+    FAIL_FAST
+  }
+
+  private static final int NEW = 0;
+  private static final int RUNNING = 1;
+  private static final int OVER = 2;
+
+  private final ExecutionContext<ERR> context;
+  private final boolean failFast;
+  private final Thread owner = Thread.currentThread();
+  // the number of tasks that may still run, the closing thread waits for it to drop to zero
+  private final AtomicInteger running = new AtomicInteger();
+  private volatile boolean closing;
+  private final List<Fork> forks = new ArrayList<>();
+  private final AtomicReference<ERR> failure = new AtomicReference<>();
+  private boolean joined;
+  private boolean closed;
+
+  OrScope(ExecutionContext<ERR> context, Policy policy) {
+    this.context = context;
+    this.failFast = policy == Policy.FAIL_FAST;
+  }
+
+  /**
+   * Starts running the given task in this scope.
+   *
+   * @param task the task to run
+   * @return the future of the result of the task
+   * @throws IllegalStateException if this scope was joined or closed already
+   */
+  public OrFuture<G, ERR> fork(CheckedFunction0<? extends Or<? extends G, ? extends ERR>> task) {
+    checkOwner();
+    if (joined || closed) throw new IllegalStateException("cannot fork in a scope already joined or closed");
+    Fork fork = new Fork(task);
+    running.incrementAndGet();
+    fork.future = context.future(fork);
+    synchronized (forks) {
+      forks.add(fork);
+    }
+    if (failFast) {
+      fork.future.onComplete(or -> {
+        if (or.isBad() && !fork.cancelled) {
+          failure.compareAndSet(null, or.getBad());
+          cancelAll("a sibling task failed");
+        }
+      });
+      // a sibling may have failed before this fork was visible
+      if (failure.get() != null) fork.cancel("a sibling task failed");
+    }
+    return fork.future;
+  }
+
+  /**
+   * Waits for every task of this scope to complete.
+   *
+   * @return the results of the tasks in the order they were forked, or their failures
+   * @throws InterruptedException if the current thread is interrupted while waiting
+   */
+  public Or<Vector<G>, Every<ERR>> join() throws InterruptedException {
+    try {
+      return join(Duration.ofMillis(Long.MAX_VALUE));
+    } catch (TimeoutException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Waits at most the given time for every task of this scope to complete.
+   *
+   * @param timeout the maximum time to wait
+   * @return the results of the tasks in the order they were forked, or their failures
+   * @throws InterruptedException if the current thread is interrupted while waiting
+   * @throws TimeoutException if some tasks are still running after the timeout
+   */
+  public Or<Vector<G>, Every<ERR>> join(Duration timeout) throws InterruptedException, TimeoutException {
+    checkOwner();
+    if (closed) throw new IllegalStateException("cannot join a closed scope");
+    joined = true;
+    Vector<OrFuture<G, One<ERR>>> results = Vector.ofAll(forks).map(fork -> fork.future.accumulating());
+    Or<Vector<G>, Every<ERR>> or = context.combined(results).get(timeout);
+    if (!failFast || or.isGood()) return or;
+    // recorded by the failing task before its future completed, unless it failed without running
+    ERR first = failure.get();
+    for (int i = 0; first == null && i < forks.size(); i++) {
+      Fork fork = forks.get(i);
+      Or<G, ERR> result = fork.future.getOption().get();
+      if (result.isBad() && !fork.cancelled) first = result.getBad();
+    }
+    return first == null ? or : Bad.of(One.of(first));
+  }
+
+  /**
+   * Cancels the tasks still running and waits until none of them runs anymore.
+   */
+  @Override
+  public void close() {
+    checkOwner();
+    if (closed) return;
+    closed = true;
+    cancelAll("scope closed");
+    closing = true;
+    boolean interrupted = false;
+    while (running.get() != 0) {
+      LockSupport.park(this);
+      // no task may outlive the scope, the interrupt is kept for later
+      if (Thread.interrupted()) interrupted = true;
+    }
+    if (interrupted) owner.interrupt();
+  }
+
+  private void stopped() {
+    if (running.decrementAndGet() == 0 && closing) LockSupport.unpark(owner);
+  }
+
+  private void checkOwner() {
+    if (Thread.currentThread() != owner) throw new IllegalStateException("a scope can only be used by the thread that opened it");
+  }
+
+  private void cancelAll(String reason) {
+    List<Fork> all;
+    synchronized (forks) {
+      all = new ArrayList<>(forks);
+    }
+    for (Fork fork : all) fork.cancel(reason);
+  }
+
+  private final class Fork implements CheckedFunction0<Or<? extends G, ? extends ERR>> {
+    private static final long serialVersionUID = 1L;
+
+    private final CheckedFunction0<? extends Or<? extends G, ? extends ERR>> task;
+    private final AtomicInteger state = new AtomicInteger(NEW);
+    volatile OrFuture<G, ERR> future;
+    volatile boolean cancelled;
+
+    Fork(CheckedFunction0<? extends Or<? extends G, ? extends ERR>> task) {
+      this.task = task;
+    }
+
+    @Override
+    public Or<? extends G, ? extends ERR> apply() throws Throwable {
+      if (!state.compareAndSet(NEW, RUNNING)) return Bad.of(context.convert(new CancellationException("scope closed")));
+      try {
+        Or<? extends G, ? extends ERR> result;
+        try {
+          result = task.apply();
+        } catch (Throwable t) {
+          result = Bad.of(context.convert(t));
+        }
+        if (failFast && result.isBad() && !cancelled) failure.compareAndSet(null, result.getBad());
+        return result;
+      } finally {
+        state.set(OVER);
+        stopped();
+      }
+    }
+
+    void cancel(String reason) {
+      if (!future.isCompleted()) {
+        cancelled = true;
+        future.cancel(context.convert(new CancellationException(reason)));
+      }
+      // the task will not run anymore if it has not started yet
+      if (state.compareAndSet(NEW, OVER)) stopped();
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.Executor;
+
+/**
+ * An executor capturing the state of a {@link ContextPropagator} when a task is submitted, and
+ * restoring it on the thread running the task for the duration of the run.
+ *
+ * @param <S> the type of the captured state
+ */
+final class PropagatingExecutor<S> implements Executor {
+
+  private final Executor executor;
+  private final ContextPropagator<S> propagator;
+
+  PropagatingExecutor(Executor executor, ContextPropagator<S> propagator) {
+    this.executor = executor;
+    this.propagator = propagator;
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    executor.execute(propagating(propagator, task));
+  }
+
+  /**
+   * @return the given task, running with the state of the given propagator captured now
+   */
+  static <S> Runnable propagating(ContextPropagator<S> propagator, Runnable task) {
+    S snapshot = propagator.capture();
+    return () -> {
+      S previous = propagator.restore(snapshot);
+      try {
+        task.run();
+      } finally {
+        propagator.restore(previous);
+      }
+    };
+  }
+
+  /**
+   * Like {@link #propagating(ContextPropagator, Runnable)}, but leaves the running thread alone when
+   * it already holds the captured state, as it does when a callback runs on the thread, or in the
+   * batch, of the future completing it.
+   *
+   * @return the given task, running with the state of the given propagator captured now
+   */
+  static <S> Runnable propagatingIfChanged(ContextPropagator<S> propagator, Runnable task) {
+    S snapshot = propagator.capture();
+    return () -> {
+      if (same(propagator.capture(), snapshot)) {
+        task.run();
+        return;
+      }
+      S previous = propagator.restore(snapshot);
+      try {
+        task.run();
+      } finally {
+        propagator.restore(previous);
+      }
+    };
+  }
+
+  private static boolean same(Object current, Object snapshot) {
+    if (current instanceof States && snapshot instanceof States) {
+      States a = (States) current;
+      States b = (States) snapshot;
+      return same(a.first, b.first) && same(a.second, b.second);
+    }
+    return current == snapshot;
+  }
+
+  /**
+   * @return a propagator carrying the states of both given ones
+   */
+  @SuppressWarnings("unchecked")
+  static ContextPropagator<Object> both(ContextPropagator<?> first, ContextPropagator<?> second) {
+    ContextPropagator<Object> a = (ContextPropagator<Object>) first;
+    ContextPropagator<Object> b = (ContextPropagator<Object>) second;
+    return new ContextPropagator<Object>() {
+      @Override
+      public Object capture() {
+        return new States(a.capture(), b.capture());
+      }
+
+      @Override
+      public Object restore(Object snapshot) {
+        States states = (States) snapshot;
+        return new States(a.restore(states.first), b.restore(states.second));
+      }
+    };
+  }
+
+  private static final class States {
+    final Object first;
+    final Object second;
+
+    States(Object first, Object second) {
+      this.first = first;
+      this.second = second;
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import com.github.javactic.Or;
+
+/**
+ * A future computed from the result of a source future. It is its own callback on the source,
+ * so every operator costs a single object.
+ * <p>
+ * A stage that gets cancelled, or that nobody depends on anymore, releases its source in turn,
+ * so that the work upstream can be abandoned when nothing else needs it.
+ *
+ * @param <G> the success type of the source future
+ * @param <B> the failure type of the source future
+ * @param <H> the success type of this future
+ * @param <C> the failure type of this future
+ */
+abstract class Stage<G, B, H, C> extends OrFutureImpl<H, C> implements OrFutureImpl.Callback<G, B>, Runnable {
+
+  private OrFutureImpl<G, B> source;
+  private Or<G, B> input;
+  private volatile boolean abandoned;
+  // this stage, with the propagated state of the thread creating it
+  private final Runnable dispatched;
+
+  Stage(ExecutionContext<?> executionContext, OrFutureImpl<G, B> source, boolean contextBad) {
+    super(executionContext, contextBad);
+    this.source = source;
+    this.dispatched = executionContext.capturing(this);
+  }
+
+  void arm(Or<G, B> input) {
+    this.input = input;
+    this.source = null;
+  }
+
+  /**
+   * @return the result of the source future, handed over only once
+   */
+  Or<G, B> takeInput() {
+    Or<G, B> or = input;
+    input = null;
+    return or;
+  }
+
+  @Override
+  public void fire(Or<G, B> result) {
+    // safely published to the running thread by the executor
+    arm(result);
+    ExecutionMetrics metrics = executionContext.metrics;
+    if (metrics != null) metrics.callbackDispatched();
+    executionContext.getExecutor().execute(dispatched);
+  }
+
+  @Override
+  public boolean isLive() {
+    return isNeeded();
+  }
+
+  @Override
+  boolean isNeeded() {
+    return !abandoned && !isCompleted();
+  }
+
+  @Override
+  void cancelled() {
+    release(source);
+  }
+
+  @Override
+  void abandoned() {
+    abandoned = true;
+    release(source);
+  }
+}
@@ -0,0 +1,155 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.javactic.Bad;
+import io.vavr.collection.SortedMap;
+import io.vavr.collection.TreeMap;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Watches the futures that only complete from outside, namely promises, tasks and futures of
+ * completion stages, and reports the ones still pending after a threshold. Attach one with
+ * {@link ExecutionContext#withWatchdog(StallWatchdog)}.
+ * <p>
+ * Watched futures are held weakly, and a sweep on the timer of the context checks them a few times
+ * per threshold, for as long as some are pending. A stalled future is reported once. If asked to,
+ * the watchdog also fails it with the {@link TimeoutException} converted by the context, provided
+ * the failure type of the future is the one of the context, as for tasks; promises, whose failure
+ * type is free, are only reported.
+ */
+public final class StallWatchdog {
+
+  private final long threshold;
+  private final BiConsumer<? super OrFuture<?, ?>, ? super Duration> onStall;
+  private final boolean failStalled;
+  private final Set<Entry> entries = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean sweeping = new AtomicBoolean();
+  private final LongAdder stalled = new LongAdder();
+
+  /**
+   * @param threshold how long a future may stay pending before it is reported
+   * @param onStall called on the timer thread with each stalled future and how long it has been pending
+   * @param failStalled whether stalled futures are failed as well
+   */
+  public StallWatchdog(Duration threshold, BiConsumer<? super OrFuture<?, ?>, ? super Duration> onStall, boolean failStalled) {
+    this.threshold = ExecutionContext.nanos(threshold);
+    if (this.threshold <= 0) throw new IllegalArgumentException("threshold must be positive: " + threshold);
+    this.onStall = Objects.requireNonNull(onStall, "onStall is null");
+    this.failStalled = failStalled;
+  }
+
+  Entry watch(OrFutureImpl<?, ?> future) {
+    Entry entry = new Entry(future);
+    entries.add(entry);
+    if (sweeping.compareAndSet(false, true)) scheduleSweep(future.executionContext);
+    return entry;
+  }
+
+  void completed(Entry entry) {
+    entries.remove(entry);
+  }
+
+  private void scheduleSweep(ExecutionContext<?> context) {
+    context.timeout(() -> sweep(context), Math.max(threshold / 4, 1_000_000));
+  }
+
+  private void sweep(ExecutionContext<?> context) {
+    long now = System.nanoTime();
+    for (Entry entry : entries) {
+      OrFutureImpl<?, ?> future = entry.get();
+      if (future == null || future.isCompleted()) {
+        entries.remove(entry);
+      } else if (!entry.reported && now - entry.createdAt >= threshold) {
+        entry.reported = true;
+        stalled.increment();
+        stalled(future, Duration.ofNanos(now - entry.createdAt));
+      }
+    }
+    if (!entries.isEmpty()) {
+      scheduleSweep(context);
+      return;
+    }
+    sweeping.set(false);
+    // a future watched while stopping
+    if (!entries.isEmpty() && sweeping.compareAndSet(false, true)) scheduleSweep(context);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void stalled(OrFutureImpl<?, ?> future, Duration pendingFor) {
+    try {
+      onStall.accept(future, pendingFor);
+    } catch (Throwable t) {
+      OrFutureImpl.handleUncaughtThrowable(t);
+    }
+    if (failStalled && future.contextBad) {
+      TimeoutException e = new TimeoutException("pending for " + pendingFor.toMillis() + " ms");
+      ((OrFutureImpl<Object, Object>) future).tryComplete(Bad.of(future.executionContext.convert(e)));
+    }
+  }
+
+  /**
+   * @return the number of futures reported as stalled so far
+   */
+  public long stalledCount() {
+    return stalled.sum();
+  }
+
+  /**
+   * Counts the watched futures pending for at least the threshold, by age: each key is the lower
+   * bound of a range ending at twice that bound, starting with the threshold.
+   *
+   * @return the number of long-pending futures in each range of age, empty ranges left out
+   */
+  public SortedMap<Duration, Integer> pendingByAge() {
+    long now = System.nanoTime();
+    SortedMap<Duration, Integer> counts = TreeMap.empty();
+    for (Entry entry : entries) {
+      OrFutureImpl<?, ?> future = entry.get();
+      long age = now - entry.createdAt;
+      if (future == null || future.isCompleted() || age < threshold) continue;
+      long bound = threshold;
+      while (bound <= Long.MAX_VALUE / 2 && age >= 2 * bound) bound *= 2;
+      Duration range = Duration.ofNanos(bound);
+      counts = counts.put(range, counts.get(range).getOrElse(0) + 1);
+    }
+    return counts;
+  }
+
+  static final class Entry extends WeakReference<OrFutureImpl<?, ?>> {
+    final long createdAt = System.nanoTime();
+    // only accessed by the sweep
+    boolean reported;
+
+    Entry(OrFutureImpl<?, ?> future) {
+      super(future);
+    }
+  }
+}
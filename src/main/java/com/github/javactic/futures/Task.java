@@ -0,0 +1,126 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import com.github.javactic.Bad;
+import com.github.javactic.Or;
+import io.vavr.CheckedFunction0;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A future completed by running a task. Cancelling it skips the task if it has not started yet,
+ * possibly removing it from the timer, or interrupts the thread running it. A task that would
+ * start past the deadline of its context is skipped as well.
+ *
+ * @param <G> the success type
+ * @param <B> the failure type, which is the one of the context
+ */
+final class Task<G, B> extends OrFutureImpl<G, B> implements Runnable {
+
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<Task, Object> RUNNER =
+    AtomicReferenceFieldUpdater.newUpdater(Task.class, Object.class, "runner");
+  private static final Object INTERRUPTING = new Object();
+  private static final Object INTERRUPTED = new Object();
+
+  private final ExecutionContext<B> context;
+  private CheckedFunction0<? extends Or<? extends G, ? extends B>> task;
+  // the running thread, then INTERRUPTING and INTERRUPTED if cancelled while running
+  private volatile Object runner;
+  private volatile TimerWheel.Timeout timeout;
+  // when the task was handed to the executor, only tracked for the metrics
+  private long submittedAt;
+
+  Task(ExecutionContext<B> context, CheckedFunction0<? extends Or<? extends G, ? extends B>> task) {
+    super(context, true);
+    this.context = context;
+    this.task = task;
+    watch();
+  }
+
+  /**
+   * Hands this task to the executor of its context.
+   */
+  void submit() {
+    if (context.metrics != null) submittedAt = System.nanoTime();
+    context.fork(this);
+  }
+
+  void scheduled(TimerWheel.Timeout timeout) {
+    this.timeout = timeout;
+    if (isCompleted()) timeout.cancel();
+  }
+
+  @Override
+  public void run() {
+    CheckedFunction0<? extends Or<? extends G, ? extends B>> t = task;
+    task = null;
+    Thread current = Thread.currentThread();
+    if (t == null || isCompleted()) return;
+    if (context.expired()) {
+      // queued or scheduled past the deadline, the result would come too late anyway
+      tryComplete(Bad.of(context.expiredBad()));
+      return;
+    }
+    if (!RUNNER.compareAndSet(this, null, current)) return;
+    ExecutionMetrics metrics = context.metrics;
+    long start = metrics == null ? 0 : System.nanoTime();
+    try {
+      Or<? extends G, ? extends B> result;
+      try {
+        result = t.apply();
+      } catch (Throwable e) {
+        result = Bad.of(context.convert(e));
+      }
+      // reported before completing, so that whoever sees the result also sees the task counted
+      if (metrics != null) metrics.taskExecuted(start - submittedAt, System.nanoTime() - start);
+      tryComplete(result);
+    } finally {
+      if (!RUNNER.compareAndSet(this, current, null)) {
+        // the interrupt was meant for this task only, do not leak it to the next one
+        while (runner == INTERRUPTING) Thread.yield();
+        Thread.interrupted();
+      }
+    }
+  }
+
+  @Override
+  void cancelled() {
+    TimerWheel.Timeout t = timeout;
+    if (t != null) t.cancel();
+    Object current = runner;
+    if (current instanceof Thread && RUNNER.compareAndSet(this, current, INTERRUPTING)) {
+      try {
+        ((Thread) current).interrupt();
+      } finally {
+        runner = INTERRUPTED;
+      }
+    }
+  }
+
+  @Override
+  void abandoned() {
+    if (tryComplete(Bad.of(context.convert(new CancellationException("no longer needed"))))) cancelled();
+  }
+}
@@ -0,0 +1,227 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed wheel timer. Timeouts are hashed into the buckets of a wheel that a single daemon thread
+ * walks through one tick at a time, so scheduling and cancelling a timeout are O(1) and any number
+ * of pending timeouts share that one thread. Timeouts fire within one tick of their deadline.
+ * <p>
+ * The thread is started with the first timeout and parks while there is nothing to wait for.
+ * Expired tasks run on the timer thread and must be short, typically completing a future.
+ * <p>
+ * Execution contexts all share one wheel, so that creating contexts does not start threads.
+ */
+final class TimerWheel {
+
+  private static final TimerWheel SHARED = new TimerWheel();
+
+  private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final int WHEEL_SIZE = 512;
+  private static final int MASK = WHEEL_SIZE - 1;
+
+  private final Bucket[] wheel = new Bucket[WHEEL_SIZE];
+  private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+  private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean started = new AtomicBoolean();
+  private final long startTime = System.nanoTime();
+  private volatile Thread worker;
+  // only accessed by the worker
+  private long tick;
+  private int pending;
+
+  TimerWheel() {
+    for (int i = 0; i < WHEEL_SIZE; i++) wheel[i] = new Bucket();
+  }
+
+  /**
+   * @return the wheel shared by every execution context
+   */
+  static TimerWheel shared() {
+    return SHARED;
+  }
+
+  /**
+   * Schedules the given task to run once the given delay has elapsed.
+   *
+   * @param task the task to run on the timer thread
+   * @param delay the delay in nanoseconds
+   * @return a handle to cancel the task
+   */
+  Timeout schedule(Runnable task, long delay) {
+    long now = System.nanoTime() - startTime;
+    // saturate, a deadline that far away never comes anyway
+    long deadline = delay > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + Math.max(delay, 0);
+    Timeout timeout = new Timeout(this, task, deadline);
+    added.add(timeout);
+    if (started.compareAndSet(false, true)) {
+      Thread thread = new Thread(this::work, "javactic-timer");
+      thread.setDaemon(true);
+      worker = thread;
+      thread.start();
+    } else {
+      LockSupport.unpark(worker);
+    }
+    return timeout;
+  }
+
+  private void work() {
+    for (;;) {
+      if (pending == 0 && added.isEmpty()) {
+        cancelled.clear();
+        LockSupport.park(this);
+        // nothing was waiting on the wheel, so just catch up with the clock
+        tick = Math.max(tick, (System.nanoTime() - startTime) / TICK_NANOS);
+        continue;
+      }
+      long deadline = TICK_NANOS * (tick + 1);
+      long sleep = deadline - (System.nanoTime() - startTime);
+      if (sleep > 0) {
+        LockSupport.parkNanos(this, sleep);
+        continue;
+      }
+      removeCancelled();
+      transferAdded();
+      expire(wheel[(int) (tick & MASK)], deadline);
+      tick++;
+    }
+  }
+
+  private void transferAdded() {
+    Timeout timeout;
+    while ((timeout = added.poll()) != null) {
+      if (timeout.state != Timeout.PENDING) continue;
+      long target = timeout.deadline / TICK_NANOS;
+      timeout.rounds = Math.max(target - tick, 0) / WHEEL_SIZE;
+      wheel[(int) (Math.max(target, tick) & MASK)].add(timeout);
+      pending++;
+    }
+  }
+
+  private void removeCancelled() {
+    Timeout timeout;
+    while ((timeout = cancelled.poll()) != null) {
+      if (timeout.bucket != null) {
+        timeout.bucket.remove(timeout);
+        pending--;
+      }
+    }
+  }
+
+  private void expire(Bucket bucket, long deadline) {
+    Timeout timeout = bucket.head;
+    while (timeout != null) {
+      Timeout next = timeout.next;
+      if (timeout.rounds <= 0 || timeout.state != Timeout.PENDING) {
+        bucket.remove(timeout);
+        pending--;
+        if (timeout.deadline <= deadline) timeout.expire();
+      } else {
+        timeout.rounds--;
+      }
+      timeout = next;
+    }
+  }
+
+  /**
+   * A task scheduled on the wheel.
+   */
+  static final class Timeout {
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+    private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+      AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+    private final TimerWheel timer;
+    private final long deadline;
+    private Runnable task;
+    private volatile int state;
+    // only accessed by the worker
+    private long rounds;
+    private Bucket bucket;
+    private Timeout next;
+    private Timeout previous;
+
+    private Timeout(TimerWheel timer, Runnable task, long deadline) {
+      this.timer = timer;
+      this.task = task;
+      this.deadline = deadline;
+    }
+
+    /**
+     * Cancels this timeout, its task will not run.
+     *
+     * @return true if it was cancelled, false if it already expired or was cancelled
+     */
+    boolean cancel() {
+      if (!STATE.compareAndSet(this, PENDING, CANCELLED)) return false;
+      task = null;
+      timer.cancelled.add(this);
+      return true;
+    }
+
+    private void expire() {
+      Runnable t = task;
+      if (!STATE.compareAndSet(this, PENDING, EXPIRED)) return;
+      task = null;
+      try {
+        t.run();
+      } catch (Throwable e) {
+        OrFutureImpl.handleUncaughtThrowable(e);
+      }
+    }
+  }
+
+  private static final class Bucket {
+    private Timeout head;
+    private Timeout tail;
+
+    void add(Timeout timeout) {
+      timeout.bucket = this;
+      if (head == null) {
+        head = tail = timeout;
+      } else {
+        tail.next = timeout;
+        timeout.previous = tail;
+        tail = timeout;
+      }
+    }
+
+    void remove(Timeout timeout) {
+      if (timeout.previous != null) timeout.previous.next = timeout.next;
+      else head = timeout.next;
+      if (timeout.next != null) timeout.next.previous = timeout.previous;
+      else tail = timeout.previous;
+      timeout.next = null;
+      timeout.previous = null;
+      timeout.bucket = null;
+    }
+  }
+}
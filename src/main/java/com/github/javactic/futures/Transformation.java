@@ -0,0 +1,71 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import com.github.javactic.Or;
+
+import java.util.function.Function;
+
+/**
+ * A future obtained by applying a synchronous function to the result of another future.
+ * <p>
+ * Once running, a transformation completes itself and goes on with the first transformation
+ * registered on it in place, so a chain such as {@code map(f).filter(v).recover(h)} is applied
+ * within one task of the executor rather than one task per operator.
+ *
+ * @param <G> the success type of the source future
+ * @param <B> the failure type of the source future
+ * @param <H> the success type of this future
+ * @param <C> the failure type of this future
+ */
+final class Transformation<G, B, H, C> extends Stage<G, B, H, C> {
+
+  private Function<? super Or<G, B>, ? extends Or<? extends H, ? extends C>> function;
+
+  Transformation(ExecutionContext<?> executionContext, OrFutureImpl<G, B> source, boolean contextBad,
+                 Function<? super Or<G, B>, ? extends Or<? extends H, ? extends C>> function) {
+    super(executionContext, source, contextBad);
+    this.function = function;
+  }
+
+  @Override
+  public void run() {
+    Transformation<?, ?, ?, ?> next = this;
+    while (next != null) next = next.step();
+  }
+
+  @SuppressWarnings("unchecked")
+  private Transformation<H, C, ?, ?> step() {
+    Function<? super Or<G, B>, ? extends Or<? extends H, ? extends C>> f = function;
+    function = null;
+    Or<G, B> or = takeInput();
+    if (isCompleted()) return null;
+    Or<H, C> result;
+    try {
+      result = (Or<H, C>) f.apply(or);
+    } catch (Throwable t) {
+      handleUncaughtThrowable(t);
+      return null;
+    }
+    return completeFused(result);
+  }
+}
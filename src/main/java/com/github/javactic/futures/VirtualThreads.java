@@ -0,0 +1,46 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.vavr.control.Option;
+import io.vavr.control.Try;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Looks up the virtual thread factory of the running Java version, if it has one.
+ */
+final class VirtualThreads {
+
+  private static final Option<ThreadFactory> FACTORY = Try.of(() -> {
+    Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+    Class<?> type = Class.forName("java.lang.Thread$Builder$OfVirtual");
+    builder = type.getMethod("name", String.class, long.class).invoke(builder, "javactic-virtual-", 0L);
+    return (ThreadFactory) type.getMethod("factory").invoke(builder);
+  }).toOption();
+
+  private VirtualThreads() {
+  }
+
+  static Option<ThreadFactory> factory() {
+    return FACTORY;
+  }
+}
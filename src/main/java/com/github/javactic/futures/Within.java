@@ -0,0 +1,61 @@
+package com.github.javactic.futures;
+/*
+ *    ___                       _   _
+ *   |_  |                     | | (_)
+ *     | | __ ___   ____ _  ___| |_ _  ___
+ *     | |/ _` \ \ / / _` |/ __| __| |/ __|
+ * /\__/ / (_| |\ V / (_| | (__| |_| | (__   -2015-
+ * \____/ \__,_| \_/ \__,_|\___|\__|_|\___|
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import com.github.javactic.Or;
+
+/**
+ * A future completing with the result of its source, or with a Bad if that result does not
+ * arrive before the timer of the context expires it. The source is released on expiry.
+ *
+ * @param <G> the success type
+ * @param <B> the failure type
+ */
+final class Within<G, B> extends Stage<G, B, G, B> {
+
+  private volatile TimerWheel.Timeout timeout;
+
+  Within(ExecutionContext<?> executionContext, OrFutureImpl<G, B> source, boolean contextBad) {
+    super(executionContext, source, contextBad);
+  }
+
+  void scheduled(TimerWheel.Timeout timeout) {
+    this.timeout = timeout;
+    if (isCompleted()) timeout.cancel();
+  }
+
+  @Override
+  public void run() {
+    Or<G, B> or = takeInput();
+    if (complete(or)) {
+      TimerWheel.Timeout t = timeout;
+      if (t != null) t.cancel();
+    }
+  }
+
+  @Override
+  void cancelled() {
+    super.cancelled();
+    TimerWheel.Timeout t = timeout;
+    if (t != null) t.cancel();
+  }
+}
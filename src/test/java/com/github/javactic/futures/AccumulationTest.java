@@ -21,19 +21,25 @@ import org.junit.experimental.theories.Theories;
 import org.junit.experimental.theories.Theory;
 import org.junit.runner.RunWith;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Modifier;
+import java.lang.ref.WeakReference;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.stream.Collector;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 
@@ -164,6 +170,68 @@ public class AccumulationTest {
     assertEquals("1234", fold);
   }
 
+  @Test
+  public void combinedErrorsInInputOrder() throws Exception {
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newCachedThreadPool());
+    List<OrPromise<Integer, Every<String>>> promises = List.fill(4, ctx::promise);
+    OrFuture<Vector<Integer>, Every<String>> combined = ctx.combined(promises.map(OrPromise::future));
+    promises.get(3).failure(Every.of("d1", "d2"));
+    promises.get(1).success(1);
+    promises.get(2).failure(One.of("c"));
+    promises.get(0).failure(One.of("a"));
+    assertEquals(Every.of("a", "c", "d1", "d2"), combined.get(Duration.ofSeconds(10)).getBad());
+  }
+
+  @Test
+  public void combinedDispatchesOncePerInput() throws Exception {
+    for (int n : new int[]{10, 1_000, 100_000}) {
+      AtomicInteger dispatches = new AtomicInteger();
+      ExecutorService pool = Executors.newSingleThreadExecutor();
+      ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, task -> {
+        dispatches.incrementAndGet();
+        pool.execute(task);
+      });
+      Vector<OrFuture<Integer, One<String>>> inputs = Vector.range(0, n).map(ctx::goodFuture);
+      Or<Vector<Integer>, Every<String>> or = ctx.combined(inputs).get(Duration.ofSeconds(30));
+      assertEquals(Vector.range(0, n), or.get());
+      assertEquals(n, dispatches.get());
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void withGoodJoinsInOneDispatch() throws Exception {
+    AtomicInteger dispatches = new AtomicInteger();
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, task -> {
+      dispatches.incrementAndGet();
+      pool.execute(task);
+    });
+    OrFuture<Integer, One<String>> done = ctx.goodFuture(1);
+    OrFuture<Integer, Every<String>> sum = ctx.withGood(done, done, done, done, done, done, done, done,
+      (a, b, c, d, e, f, g, h) -> a + b + c + d + e + f + g + h);
+    assertEquals(Integer.valueOf(8), sum.get(Duration.ofSeconds(10)).get());
+    assertEquals(1, dispatches.get());
+
+    dispatches.set(0);
+    List<OrPromise<Integer, One<String>>> promises = List.fill(3, ctx::promise);
+    OrFuture<Integer, Every<String>> joined = ctx.withGood(promises.get(0).future(), promises.get(1).future(),
+      promises.get(2).future(), (a, b, c) -> a * 100 + b * 10 + c);
+    promises.get(2).success(3);
+    promises.get(0).success(1);
+    assertEquals(0, dispatches.get());
+    promises.get(1).success(2);
+    assertEquals(Integer.valueOf(123), joined.get(Duration.ofSeconds(10)).get());
+    assertEquals(1, dispatches.get());
+
+    OrPromise<Integer, One<String>> bad = ctx.promise();
+    OrFuture<Integer, Every<String>> failed = ctx.withGood(ctx.<Integer, One<String>>badFuture(One.of("a")), bad.future(),
+      (a, b) -> a + b);
+    bad.failure(One.of("b"));
+    assertEquals(Every.of("a", "b"), failed.get(Duration.ofSeconds(10)).getBad());
+    pool.shutdown();
+  }
+
   @Test
   public void combined() throws TimeoutException, InterruptedException {
     ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newCachedThreadPool());
@@ -222,6 +290,162 @@ public class AccumulationTest {
     assertTrue(res.getBad() instanceof One);
   }
 
+  @Theory
+  public void validatedByBounded(Executor es) throws Exception {
+    ExecutionContext<One<String>> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, es).accumulating();
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    Function<Integer, OrFuture<Integer, One<String>>> f = i ->
+      ctx.future(() -> {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+        running.decrementAndGet();
+        if (i % 100 == 99) return Bad.ofOne("bad " + i);
+        return Good.of(i);
+      });
+    Or<Vector<Integer>, Every<String>> res =
+      ctx.validatedBy(Iterator.range(0, 50), 4, f).get(Duration.ofSeconds(30));
+    assertEquals(Vector.range(0, 50), res.get());
+    res = ctx.validatedBy(Iterator.range(0, 300).toJavaStream().iterator(), 4, f).get(Duration.ofSeconds(30));
+    assertEquals(Every.of("bad 99", "bad 199", "bad 299"), res.getBad());
+    assertTrue(maxRunning.get() <= 4);
+  }
+
+  @Test
+  public void sequenceBoundedPullsLazily() throws Exception {
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newCachedThreadPool());
+    AtomicInteger pulled = new AtomicInteger();
+    OrPromise<Integer, One<String>> slow = ctx.promise();
+    java.util.Iterator<OrFuture<Integer, One<String>>> input = Iterator.range(0, 1000).map(i -> {
+      pulled.incrementAndGet();
+      return i == 0 ? slow.future() : ctx.<Integer, One<String>>goodFuture(i);
+    });
+    OrFuture<Vector<Integer>, Every<String>> sequence = ctx.sequence(input, 8);
+    Thread.sleep(50);
+    // the slow head holds the window
+    assertEquals(8, pulled.get());
+    slow.success(0);
+    assertEquals(Vector.range(0, 1000), sequence.get(Duration.ofSeconds(10)).get());
+  }
+
+  @Test
+  public void sequenceBoundedFailsFast() throws Exception {
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newCachedThreadPool());
+    CountDownLatch interrupted = new CountDownLatch(1);
+    OrFuture<Integer, One<String>> blocked = ctx.future(() -> {
+      try {
+        Thread.sleep(10_000);
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+      return Good.<Integer, String>of(0);
+    }).accumulating();
+    java.util.Iterator<OrFuture<Integer, One<String>>> input =
+      Iterator.of(blocked, ctx.<Integer, One<String>>badFuture(One.of("bad")), ctx.goodFuture(2));
+    Or<Vector<Integer>, Every<String>> or = ctx.sequence(input, 2).get(Duration.ofSeconds(10));
+    assertEquals(One.of("bad"), or.getBad());
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void sequenceBoundedStopsOnceReleased() throws Exception {
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newCachedThreadPool());
+    OrPromise<Integer, One<String>> slow = ctx.promise();
+    OrFuture<Vector<Integer>, Every<String>> sequence = ctx.sequence(Iterator.of(slow.future(), ctx.goodFuture(1)), 2);
+    OrFuture<Vector<Integer>, Every<String>> winner = ctx.goodFuture(Vector.empty());
+    // the sequence loses the race, nothing needs it anymore
+    assertEquals(Vector.empty(), ctx.firstCompletedOf(Vector.of(sequence, winner)).get(Duration.ofSeconds(10)).get());
+    // stopped, the late result is not collected
+    slow.success(0);
+    Thread.sleep(20);
+    assertFalse(sequence.isCompleted());
+  }
+
+  @Test
+  public void validatedByBoundedAbandonedWithOtherErrorType() throws Exception {
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newCachedThreadPool());
+    OrPromise<Integer, One<Integer>> slow = ctx.promise();
+    OrFuture<Vector<Integer>, Every<Integer>> validated = ctx.validatedBy(Iterator.of(1, 2), 1, i -> slow.future());
+    OrFuture<Vector<Integer>, Every<Integer>> winner = ctx.goodFuture(Vector.empty());
+    assertEquals(Vector.empty(), ctx.firstCompletedOf(Vector.of(validated, winner)).get(Duration.ofSeconds(10)).get());
+    // no error of the context type sneaks in as an Integer
+    slow.failure(One.of(1));
+    Thread.sleep(20);
+    assertFalse(validated.isCompleted());
+  }
+
+  @Test
+  public void sequenceCollectsInOrderAsResultsArrive() throws Exception {
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newCachedThreadPool());
+    List<OrPromise<Integer, One<String>>> promises = List.fill(3, ctx::promise);
+    java.util.List<Integer> collected = new CopyOnWriteArrayList<>();
+    Collector<Integer, ?, Vector<Integer>> collector = Collector.<Integer, java.util.List<Integer>, Vector<Integer>>of(
+      () -> collected, java.util.List::add, (a, b) -> a, Vector::ofAll);
+    OrFuture<Vector<Integer>, Every<String>> sequence = ctx.sequence(promises.map(OrPromise::future), collector);
+    promises.get(1).success(1);
+    Thread.sleep(20);
+    // waits for the first one
+    assertTrue(collected.isEmpty());
+    promises.get(0).success(0);
+    awaitSize(collected, 2);
+    assertEquals(Arrays.asList(0, 1), collected);
+    promises.get(2).success(2);
+    assertEquals(Vector.of(0, 1, 2), sequence.get(Duration.ofSeconds(10)).get());
+  }
+
+  @Test
+  public void sequenceWithConcurrentCollector() throws Exception {
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newCachedThreadPool());
+    List<OrPromise<Integer, One<String>>> promises = List.fill(3, ctx::promise);
+    ConcurrentLinkedQueue<Integer> collected = new ConcurrentLinkedQueue<>();
+    Collector<Integer, ?, ConcurrentLinkedQueue<Integer>> collector = Collector.of(() -> collected,
+      ConcurrentLinkedQueue::add, (a, b) -> a, Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED,
+      Collector.Characteristics.IDENTITY_FINISH);
+    OrFuture<ConcurrentLinkedQueue<Integer>, Every<String>> sequence = ctx.sequence(promises.map(OrPromise::future), collector);
+    promises.get(2).success(2);
+    awaitSize(collected, 1);
+    promises.get(0).success(0);
+    promises.get(1).success(1);
+    assertEquals(3, sequence.get(Duration.ofSeconds(10)).get().size());
+    ExecutionContext<String> single = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newSingleThreadExecutor());
+    Or<ConcurrentLinkedQueue<Integer>, Every<String>> empty = single.sequence(List.<OrFuture<Integer, One<String>>>empty(),
+      Collector.of(ConcurrentLinkedQueue<Integer>::new, ConcurrentLinkedQueue::add, (a, b) -> a,
+        Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED)).get(Duration.ofSeconds(10));
+    assertTrue(empty.get().isEmpty());
+  }
+
+  @Test
+  public void sequenceForgetsCompletedFutures() throws Exception {
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newCachedThreadPool());
+    OrPromise<Integer, One<String>> last = ctx.promise();
+    java.util.List<WeakReference<OrFuture<Integer, One<String>>>> done = new CopyOnWriteArrayList<>();
+    Iterable<OrFuture<Integer, One<String>>> input = () -> Iterator.range(0, 100).map(i -> {
+      if (i == 99) return last.future();
+      OrFuture<Integer, One<String>> future = ctx.goodFuture(i);
+      done.add(new WeakReference<>(future));
+      return future;
+    });
+    OrFuture<Vector<Integer>, Every<String>> sequence = ctx.sequence(input);
+    for (int i = 0; i < 100 && done.stream().anyMatch(ref -> ref.get() != null); i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertTrue(done.stream().allMatch(ref -> ref.get() == null));
+    last.success(99);
+    assertEquals(Vector.range(0, 100), sequence.get(Duration.ofSeconds(10)).get());
+  }
+
+  private static void awaitSize(java.util.Collection<?> collection, int size) throws InterruptedException {
+    for (int i = 0; i < 1000 && collection.size() < size; i++) Thread.sleep(1);
+    assertEquals(size, collection.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void parallelismMustBePositive() {
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newCachedThreadPool());
+    ctx.sequence(Iterator.<OrFuture<Integer, One<String>>>empty(), 0);
+  }
+
   @Theory
   public void when(Executor es) throws InterruptedException, ExecutionException, TimeoutException {
     ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, es);
@@ -384,12 +608,4 @@ public class AccumulationTest {
     });
   }
 
-  @Test
-  public void constructorsForCoverage() throws Exception {
-    Constructor<Helper> constructor = Helper.class.getDeclaredConstructor();
-    assertTrue(Modifier.isPrivate(constructor.getModifiers()));
-    constructor.setAccessible(true);
-    constructor.newInstance();
-  }
-
 }
@@ -0,0 +1,115 @@
+package com.github.javactic.futures;
+
+import com.github.javactic.Bad;
+import com.github.javactic.Every;
+import com.github.javactic.Good;
+import com.github.javactic.One;
+import com.github.javactic.Or;
+import io.vavr.Tuple2;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BatchLoaderTest {
+
+  private final ExecutionContext<String> ctx =
+    ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newCachedThreadPool());
+  private final List<Seq<Integer>> batches = new CopyOnWriteArrayList<>();
+
+  private Map<Integer, Or<String, Every<String>>> lookup(Seq<Integer> keys) {
+    batches.add(keys);
+    return keys.filter(k -> k >= 0).toMap(k -> k, k -> k % 2 == 0 ? Good.of("v" + k) : Bad.of(One.of("odd " + k)));
+  }
+
+  @Test
+  public void keysWithinWindowShareABatch() throws Exception {
+    BatchLoader<Integer, String, String> loader = ctx.batchLoader(this::lookup, 100, Duration.ofMillis(20));
+    List<OrFuture<String, Every<String>>> futures = new ArrayList<>();
+    for (int i = 0; i < 10; i++) futures.add(loader.load(i));
+    for (int i = 0; i < 10; i++) {
+      Or<String, Every<String>> or = futures.get(i).get(Duration.ofSeconds(10));
+      if (i % 2 == 0) assertEquals("v" + i, or.get());
+      else assertEquals(One.of("odd " + i), or.getBad());
+    }
+    assertEquals(1, batches.size());
+    assertEquals(10, batches.get(0).size());
+  }
+
+  @Test
+  public void fullBatchIsDispatchedRightAway() throws Exception {
+    BatchLoader<Integer, String, String> loader = ctx.batchLoader(this::lookup, 3, Duration.ofHours(1));
+    List<OrFuture<String, Every<String>>> futures = new ArrayList<>();
+    for (int i = 0; i < 6; i++) futures.add(loader.load(2 * i));
+    for (OrFuture<String, Every<String>> future : futures) assertTrue(future.get(Duration.ofSeconds(10)).isGood());
+    assertEquals(2, batches.size());
+    OrFuture<String, Every<String>> last = loader.load(100);
+    loader.flush();
+    assertEquals("v100", last.get(Duration.ofSeconds(10)).get());
+  }
+
+  @Test
+  public void duplicateKeysAreLoadedOnce() throws Exception {
+    BatchLoader<Integer, String, String> loader = ctx.batchLoader(this::lookup, 100, Duration.ofMillis(20));
+    OrFuture<String, Every<String>> first = loader.load(2);
+    OrFuture<String, Every<String>> second = loader.load(2);
+    assertSame(first, second);
+    assertEquals("v2", second.get(Duration.ofSeconds(10)).get());
+    assertEquals(1, batches.get(0).size());
+  }
+
+  @Test
+  public void missingKey() throws Exception {
+    BatchLoader<Integer, String, String> loader = ctx.batchLoader(this::lookup, 100, Duration.ofMillis(1));
+    Or<String, Every<String>> or = loader.load(-1).get(Duration.ofSeconds(10));
+    assertEquals("no result for key -1", or.getBad().head());
+  }
+
+  @Test
+  public void failingBatchFailsEveryKey() throws Exception {
+    BatchLoader<Integer, String, String> loader = ctx.batchLoader(keys -> {
+      throw new IllegalStateException("backend down");
+    }, 100, Duration.ofMillis(20));
+    OrFuture<String, Every<String>> a = loader.load(1);
+    OrFuture<String, Every<String>> b = loader.load(2);
+    assertEquals(One.of("backend down"), a.get(Duration.ofSeconds(10)).getBad());
+    assertEquals(One.of("backend down"), b.get(Duration.ofSeconds(10)).getBad());
+  }
+
+  @Test
+  public void concurrentLoads() throws Exception {
+    BatchLoader<Integer, String, String> loader = ctx.batchLoader(keys -> {
+      batches.add(keys);
+      return HashMap.ofEntries(keys.map(k -> new Tuple2<>(k, Good.<String, Every<String>>of("v" + k))));
+    }, 16, Duration.ofMillis(5));
+    List<OrFuture<String, Every<String>>> futures = new CopyOnWriteArrayList<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      int offset = t * 1000;
+      Thread thread = new Thread(() -> {
+        for (int i = 0; i < 500; i++) futures.add(loader.load(offset + i));
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) thread.join();
+    for (OrFuture<String, Every<String>> future : futures) assertTrue(future.get(Duration.ofSeconds(10)).isGood());
+    assertEquals(4000, batches.stream().mapToInt(Seq::size).sum());
+    assertTrue(batches.stream().allMatch(keys -> keys.size() <= 16));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void maxBatchSizeMustBePositive() {
+    ctx.batchLoader(this::lookup, 0, Duration.ofMillis(1));
+  }
+}
@@ -0,0 +1,116 @@
+package com.github.javactic.futures;
+
+import com.github.javactic.Good;
+import com.github.javactic.Or;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BatchingExecutorTest {
+
+  private static final int DEPTH = 100_000;
+
+  @Test
+  public void sameThreadRunsOnCallingThread() {
+    ExecutionContext<String> ctx = ExecutionContext.sameThread(ExecutionContext.OF_EXCEPTION_MESSAGE);
+    AtomicReference<Thread> thread = new AtomicReference<>();
+    OrFuture<Integer, String> future = ctx.future(() -> Good.of(1)).map(i -> i + 1);
+    future.onComplete(or -> thread.set(Thread.currentThread()));
+    assertSame(Thread.currentThread(), thread.get());
+    assertEquals(Integer.valueOf(2), future.getOption().get().get());
+  }
+
+  @Test
+  public void sameThreadRunsNestedTasksInOrder() {
+    BatchingExecutor executor = BatchingExecutor.sameThread();
+    List<String> order = new ArrayList<>();
+    executor.execute(() -> {
+      order.add("outer start");
+      executor.execute(() -> order.add("nested"));
+      order.add("outer end");
+    });
+    assertEquals("[outer start, outer end, nested]", order.toString());
+  }
+
+  @Test
+  public void sameThreadIsStackSafeOnFlatMap() {
+    ExecutionContext<String> ctx = ExecutionContext.sameThread(ExecutionContext.OF_EXCEPTION_MESSAGE);
+    Or<Integer, String> result = loop(ctx, 0).getUnsafe();
+    assertEquals(Integer.valueOf(DEPTH), result.get());
+  }
+
+  @Test
+  public void sameThreadIsStackSafeOnMap() {
+    ExecutionContext<String> ctx = ExecutionContext.sameThread(ExecutionContext.OF_EXCEPTION_MESSAGE);
+    OrPromise<Integer, String> promise = ctx.promise();
+    OrFuture<Integer, String> future = promise.future();
+    for (int i = 0; i < DEPTH; i++) future = future.map(x -> x + 1);
+    promise.success(0);
+    assertEquals(Integer.valueOf(DEPTH), future.getUnsafe().get());
+  }
+
+  @Test
+  public void batchingRunsFanOutInOneTask() throws Exception {
+    CountingExecutor pool = new CountingExecutor();
+    ExecutionContext<String> ctx = ExecutionContext.batching(ExecutionContext.OF_EXCEPTION_MESSAGE, pool);
+    OrPromise<Integer, String> promise = ctx.promise();
+    int listeners = 100;
+    CountDownLatch done = new CountDownLatch(listeners);
+    for (int i = 0; i < listeners; i++) {
+      promise.future().map(x -> x + 1).onComplete(or -> done.countDown());
+    }
+    promise.success(1);
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    assertEquals(1, pool.submitted.get());
+  }
+
+  @Test
+  public void batchingSubmitsNewBatchesFromOutside() throws Exception {
+    CountingExecutor pool = new CountingExecutor();
+    ExecutionContext<String> ctx = ExecutionContext.batching(ExecutionContext.OF_EXCEPTION_MESSAGE, pool);
+    OrFuture<Integer, String> a = ctx.future(() -> Good.of(1));
+    OrFuture<Integer, String> b = ctx.future(() -> Good.of(2));
+    assertEquals(Integer.valueOf(3), ctx.withGood(a.accumulating(), b.accumulating(), Integer::sum).getUnsafe().get());
+    assertTrue(pool.submitted.get() >= 2);
+  }
+
+  @Test
+  public void batchingRunsForkedTasksInParallel() throws Exception {
+    ExecutionContext<String> ctx = ExecutionContext.batching(ExecutionContext.OF_EXCEPTION_MESSAGE, new CountingExecutor());
+    // every task waits for the others, so they only complete if they run in parallel
+    CyclicBarrier barrier = new CyclicBarrier(4);
+    List<OrFuture<Integer, String>> forked = new ArrayList<>();
+    ctx.<Integer, String>goodFuture(0).flatMap(x -> {
+      for (int i = 0; i < 4; i++) forked.add(ctx.future(() -> Good.of(barrier.await(10, TimeUnit.SECONDS))));
+      return forked.get(0);
+    }).getUnsafe();
+    for (OrFuture<Integer, String> future : forked) assertTrue(future.getUnsafe().isGood());
+  }
+
+  private OrFuture<Integer, String> loop(ExecutionContext<String> ctx, int i) {
+    return ctx.<Integer, String>goodFuture(i).flatMap(x -> x < DEPTH ? loop(ctx, x + 1) : ctx.goodFuture(x));
+  }
+
+  private static class CountingExecutor implements Executor {
+    private final Executor delegate = Executors.newCachedThreadPool();
+    private final AtomicInteger submitted = new AtomicInteger();
+
+    @Override
+    public void execute(Runnable command) {
+      submitted.incrementAndGet();
+      delegate.execute(command);
+    }
+  }
+}
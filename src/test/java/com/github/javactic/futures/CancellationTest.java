@@ -0,0 +1,134 @@
+package com.github.javactic.futures;
+
+import com.github.javactic.Every;
+import com.github.javactic.Good;
+import com.github.javactic.One;
+import com.github.javactic.Or;
+import com.github.javactic.Pass;
+import io.vavr.collection.Vector;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CancellationTest {
+
+  private static final String CANCELLED = "cancelled";
+
+  private final ExecutionContext<String> ctx =
+    ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newCachedThreadPool());
+
+  @Test
+  public void cancelPending() {
+    OrPromise<String, String> promise = ctx.promise();
+    assertTrue(promise.future().cancel(CANCELLED));
+    assertFalse(promise.future().cancel("again"));
+    assertFalse(promise.trySuccess("too late"));
+    assertEquals(CANCELLED, promise.future().getUnsafe().getBad());
+  }
+
+  @Test
+  public void cancelCompleted() {
+    OrFuture<String, String> future = ctx.goodFuture("done");
+    assertFalse(future.cancel(CANCELLED));
+    assertEquals("done", future.getUnsafe().get());
+  }
+
+  @Test
+  public void cancelInterruptsRunningTask() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    OrFuture<String, String> future = ctx.future(() -> blockUntilInterrupted(started, interrupted));
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    assertTrue(future.cancel(CANCELLED));
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    assertEquals(CANCELLED, future.getUnsafe().getBad());
+  }
+
+  @Test
+  public void cancelSkipsTaskNotStarted() throws Exception {
+    ExecutorService single = Executors.newSingleThreadExecutor();
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, single);
+    CountDownLatch blocker = new CountDownLatch(1);
+    ctx.future(() -> {
+      blocker.await();
+      return Good.of("first");
+    });
+    AtomicBoolean ran = new AtomicBoolean();
+    OrFuture<String, String> second = ctx.future(() -> {
+      ran.set(true);
+      return Good.of("second");
+    });
+    assertTrue(second.cancel(CANCELLED));
+    blocker.countDown();
+    single.shutdown();
+    assertTrue(single.awaitTermination(10, TimeUnit.SECONDS));
+    assertFalse(ran.get());
+  }
+
+  @Test
+  public void cancelPropagatesUpstream() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    OrFuture<String, String> task = ctx.future(() -> blockUntilInterrupted(started, interrupted));
+    OrFuture<Integer, String> mapped = task.map(String::length).filter(i -> Pass.instance());
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    assertTrue(mapped.cancel(CANCELLED));
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    assertEquals(CANCELLED, mapped.getUnsafe().getBad());
+    assertEquals("no longer needed", task.getUnsafe().getBad());
+  }
+
+  @Test
+  public void cancelDoesNotPropagateToSharedSource() throws Exception {
+    OrPromise<String, String> promise = ctx.promise();
+    OrFuture<String, String> task = promise.future().flatMap(s -> ctx.future(() -> Good.of(s)));
+    OrFuture<Integer, String> cancelled = task.map(String::length);
+    OrFuture<String, String> other = task.map(String::toUpperCase);
+    assertTrue(cancelled.cancel(CANCELLED));
+    promise.success("kept");
+    assertEquals("KEPT", other.get(Duration.ofSeconds(10)).get());
+  }
+
+  @Test
+  public void firstCompletedOfCancelsLosers() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    OrFuture<String, String> slow = ctx.future(() -> blockUntilInterrupted(started, interrupted));
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    OrFuture<String, String> first = ctx.firstCompletedOf(Vector.of(slow, ctx.future(() -> Good.of("fast"))));
+    assertEquals("fast", first.get(Duration.ofSeconds(10)).get());
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void sequenceCancelsRemainingAfterFailure() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    OrFuture<String, One<String>> slow = ctx.future(() -> blockUntilInterrupted(started, interrupted)).accumulating();
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    OrFuture<String, One<String>> failing = ctx.<String, String>badFuture("bad").accumulating();
+    Or<Vector<String>, Every<String>> result = ctx.sequence(Vector.of(slow, failing)).get(Duration.ofSeconds(10));
+    assertEquals("bad", result.getBad().head());
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+  }
+
+  private static Or<String, String> blockUntilInterrupted(CountDownLatch started, CountDownLatch interrupted) {
+    started.countDown();
+    try {
+      Thread.sleep(60_000);
+      return Good.of("not interrupted");
+    } catch (InterruptedException e) {
+      interrupted.countDown();
+      return Good.of("interrupted");
+    }
+  }
+}
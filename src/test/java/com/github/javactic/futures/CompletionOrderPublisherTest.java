@@ -0,0 +1,136 @@
+package com.github.javactic.futures;
+
+import com.github.javactic.Good;
+import com.github.javactic.Or;
+import io.vavr.collection.Iterator;
+import io.vavr.collection.List;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CompletionOrderPublisherTest {
+
+  private static final Object COMPLETE = new Object();
+
+  private final ExecutionContext<String> ctx =
+    ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newCachedThreadPool());
+
+  @Test
+  public void emitsInCompletionOrder() throws Exception {
+    List<OrPromise<Integer, String>> promises = List.fill(3, ctx::promise);
+    Recorder recorder = new Recorder();
+    ctx.inCompletionOrder(promises.map(OrPromise::future)).subscribe(recorder);
+    recorder.subscription.request(Long.MAX_VALUE);
+    promises.get(2).success(2);
+    assertEquals(Integer.valueOf(2), recorder.next().get());
+    promises.get(0).failure("bad");
+    assertEquals("bad", recorder.next().getBad());
+    promises.get(1).success(1);
+    assertEquals(Integer.valueOf(1), recorder.next().get());
+    assertEquals(COMPLETE, recorder.signals.poll(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void takesFuturesAsDemandComesIn() throws Exception {
+    AtomicInteger started = new AtomicInteger();
+    Iterable<OrFuture<Integer, String>> lazy = () -> Iterator.range(0, 10).map(i -> ctx.future(() -> {
+      started.incrementAndGet();
+      return Good.of(i);
+    }));
+    Recorder recorder = new Recorder();
+    ctx.inCompletionOrder(lazy).subscribe(recorder);
+    assertNull(recorder.signals.poll(50, TimeUnit.MILLISECONDS));
+    assertEquals(0, started.get());
+    recorder.subscription.request(2);
+    recorder.next();
+    recorder.next();
+    assertNull(recorder.signals.poll(50, TimeUnit.MILLISECONDS));
+    assertEquals(2, started.get());
+    recorder.subscription.request(8);
+    for (int i = 0; i < 8; i++) recorder.next();
+    assertEquals(COMPLETE, recorder.signals.poll(10, TimeUnit.SECONDS));
+    assertEquals(10, started.get());
+  }
+
+  @Test
+  public void emptyCompletesRightAway() throws Exception {
+    Recorder recorder = new Recorder();
+    ctx.<Integer, String>inCompletionOrder(List.empty()).subscribe(recorder);
+    assertEquals(COMPLETE, recorder.signals.poll(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void nonPositiveRequestIsAnError() throws Exception {
+    Recorder recorder = new Recorder();
+    ctx.inCompletionOrder(List.of(ctx.<Integer, String>goodFuture(1))).subscribe(recorder);
+    recorder.subscription.request(0);
+    assertTrue(recorder.signals.poll(10, TimeUnit.SECONDS) instanceof IllegalArgumentException);
+    recorder.subscription.request(1);
+    assertNull(recorder.signals.poll(50, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void cancelReleasesFuturesInFlight() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    OrFuture<Integer, String> running = ctx.future(() -> {
+      started.countDown();
+      try {
+        Thread.sleep(10_000);
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+      return Good.of(1);
+    });
+    Recorder recorder = new Recorder();
+    ctx.inCompletionOrder(List.of(running)).subscribe(recorder);
+    recorder.subscription.request(1);
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    recorder.subscription.cancel();
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    assertTrue(running.get(Duration.ofSeconds(10)).isBad());
+    assertNull(recorder.signals.poll(50, TimeUnit.MILLISECONDS));
+  }
+
+  private static final class Recorder implements Subscriber<Or<Integer, String>> {
+    final BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+    volatile Subscription subscription;
+
+    @Override
+    public void onSubscribe(Subscription s) {
+      subscription = s;
+    }
+
+    @Override
+    public void onNext(Or<Integer, String> or) {
+      signals.add(or);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      signals.add(t);
+    }
+
+    @Override
+    public void onComplete() {
+      signals.add(COMPLETE);
+    }
+
+    @SuppressWarnings("unchecked")
+    Or<Integer, String> next() throws InterruptedException {
+      return (Or<Integer, String>) signals.poll(10, TimeUnit.SECONDS);
+    }
+  }
+}
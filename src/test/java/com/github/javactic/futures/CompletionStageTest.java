@@ -0,0 +1,108 @@
+package com.github.javactic.futures;
+
+import com.github.javactic.Good;
+import com.github.javactic.Or;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompletionStageTest {
+
+  private static final String CANCELLED = "cancelled";
+
+  private final AtomicInteger dispatches = new AtomicInteger();
+  private final Executor pool = Executors.newCachedThreadPool();
+  private final ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, task -> {
+    dispatches.incrementAndGet();
+    pool.execute(task);
+  });
+
+  @Test
+  public void toCompletionStage() throws Exception {
+    OrPromise<String, String> promise = ctx.promise();
+    CompletionStage<Or<String, String>> stage = promise.future().toCompletionStage(CANCELLED);
+    AtomicReference<Thread> thread = new AtomicReference<>();
+    CompletableFuture<Or<String, String>> done = stage.whenComplete((or, t) -> thread.set(Thread.currentThread()))
+      .toCompletableFuture();
+    promise.success("good");
+    assertEquals("good", done.get(10, TimeUnit.SECONDS).get());
+    assertSame(Thread.currentThread(), thread.get());
+    assertEquals(0, dispatches.get());
+  }
+
+  @Test
+  public void toCompletionStageOfCompleted() throws Exception {
+    CompletionStage<Or<String, String>> stage = ctx.<String, String>badFuture("bad").toCompletionStage(CANCELLED);
+    assertEquals("bad", stage.toCompletableFuture().get(10, TimeUnit.SECONDS).getBad());
+    assertEquals(0, dispatches.get());
+  }
+
+  @Test
+  public void cancelledStageCancelsFuture() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    OrFuture<String, String> future = ctx.future(() -> {
+      started.countDown();
+      try {
+        Thread.sleep(10_000);
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+      return Good.of("late");
+    });
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    assertTrue(future.toCompletionStage(CANCELLED).toCompletableFuture().cancel(true));
+    assertEquals(CANCELLED, future.get(Duration.ofSeconds(10)).getBad());
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void fromCompletionStage() throws Exception {
+    CompletableFuture<String> cf = new CompletableFuture<>();
+    OrFuture<String, String> future = ctx.fromCompletionStage(cf);
+    AtomicReference<Thread> thread = new AtomicReference<>();
+    ((OrFutureImpl<String, String>) future).register(or -> thread.set(Thread.currentThread()));
+    cf.complete("good");
+    assertEquals("good", future.getOption().get().get());
+    assertSame(Thread.currentThread(), thread.get());
+    assertEquals(0, dispatches.get());
+  }
+
+  @Test
+  public void fromFailedCompletionStage() throws Exception {
+    CompletableFuture<String> cf = new CompletableFuture<>();
+    OrFuture<String, String> future = ctx.fromCompletionStage(cf.thenApply(s -> s), Throwable::getMessage);
+    cf.completeExceptionally(new IllegalStateException("boom"));
+    assertEquals("boom", future.get(Duration.ofSeconds(10)).getBad());
+  }
+
+  @Test
+  public void cancelledFutureCancelsStage() throws Exception {
+    CompletableFuture<String> cf = new CompletableFuture<>();
+    OrFuture<String, String> future = ctx.fromCompletionStage(cf);
+    assertTrue(future.cancel(CANCELLED));
+    assertTrue(cf.isCancelled());
+    assertEquals(CANCELLED, future.get(Duration.ofSeconds(10)).getBad());
+  }
+
+  @Test
+  public void roundTripAddsNoDispatch() throws Exception {
+    CompletableFuture<String> cf = new CompletableFuture<>();
+    CompletableFuture<Or<String, String>> back = ctx.fromCompletionStage(cf).toCompletionStage(CANCELLED).toCompletableFuture();
+    cf.complete("good");
+    assertEquals("good", back.get(10, TimeUnit.SECONDS).get());
+    assertEquals(0, dispatches.get());
+  }
+}
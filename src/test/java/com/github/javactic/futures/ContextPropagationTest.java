@@ -0,0 +1,154 @@
+package com.github.javactic.futures;
+
+import com.github.javactic.Good;
+import io.vavr.collection.List;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ContextPropagationTest {
+
+  private static final ThreadLocal<String> TRACE = new ThreadLocal<>();
+  private static final ThreadLocal<String> USER = new ThreadLocal<>();
+
+  private final ExecutorService single = Executors.newSingleThreadExecutor();
+  private final AtomicInteger restores = new AtomicInteger();
+  private final ContextPropagator<String> trace = propagator(TRACE);
+  private final ExecutionContext<String> ctx =
+    ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, single).withPropagation(trace);
+
+  private ContextPropagator<String> propagator(ThreadLocal<String> local) {
+    return new ContextPropagator<String>() {
+      @Override
+      public String capture() {
+        return local.get();
+      }
+
+      @Override
+      public String restore(String snapshot) {
+        restores.incrementAndGet();
+        String previous = local.get();
+        local.set(snapshot);
+        return previous;
+      }
+    };
+  }
+
+  @After
+  public void tearDown() {
+    TRACE.remove();
+    USER.remove();
+    single.shutdown();
+  }
+
+  @Test
+  public void tasksAndCallbacksSeeTheState() throws Exception {
+    TRACE.set("trace-1");
+    AtomicReference<String> seen = new AtomicReference<>();
+    OrFuture<String, String> future = ctx.future(() -> Good.<String, String>of(TRACE.get()))
+      .map(s -> s + "/" + TRACE.get());
+    future.onComplete(or -> seen.set(TRACE.get()));
+    TRACE.remove();
+    assertEquals("trace-1/trace-1", future.get(Duration.ofSeconds(10)).get());
+    assertNull(single.submit(TRACE::get).get(10, TimeUnit.SECONDS));
+    assertEquals("trace-1", seen.get());
+  }
+
+  @Test
+  public void callbacksSeeTheStateOfTheirRegistration() throws Exception {
+    CountDownLatch registered = new CountDownLatch(1);
+    OrFutureCache<String, String, String> cache = ctx.cache(key -> {
+      registered.await();
+      return Good.of(TRACE.get());
+    }, 10, Duration.ofHours(1), true);
+    AtomicReference<String> seenA = new AtomicReference<>();
+    AtomicReference<String> seenB = new AtomicReference<>();
+    AtomicReference<OrFuture<String, String>> mappedB = new AtomicReference<>();
+    TRACE.set("request-a");
+    // loaded on behalf of the first request, shared with the second one
+    cache.get("k").onComplete(or -> seenA.set(TRACE.get()));
+    Thread b = new Thread(() -> {
+      TRACE.set("request-b");
+      OrFuture<String, String> shared = cache.get("k");
+      shared.onComplete(or -> seenB.set(TRACE.get()));
+      mappedB.set(shared.map(v -> v + "/" + TRACE.get()));
+    });
+    b.start();
+    b.join();
+    registered.countDown();
+    assertEquals("request-a/request-b", mappedB.get().get(Duration.ofSeconds(10)).get());
+    // callbacks run on the single thread in order, the last one is done once this task runs
+    assertNull(single.submit(TRACE::get).get(10, TimeUnit.SECONDS));
+    assertEquals("request-a", seenA.get());
+    assertEquals("request-b", seenB.get());
+  }
+
+  @Test
+  public void timerHopsSeeTheState() throws Exception {
+    TRACE.set("trace-2");
+    OrFuture<String, String> scheduled = ctx.schedule(Duration.ofMillis(5), () -> Good.of(TRACE.get()));
+    OrFuture<String, String> delayed = ctx.<String>delay(Duration.ofMillis(5)).map(t -> TRACE.get());
+    TRACE.remove();
+    assertEquals("trace-2", scheduled.get(Duration.ofSeconds(10)).get());
+    assertEquals("trace-2", delayed.get(Duration.ofSeconds(10)).get());
+  }
+
+  @Test
+  public void oneRestorePerHop() throws Exception {
+    AtomicInteger hops = new AtomicInteger();
+    ExecutionContext<String> counting = ExecutionContext.<String>of(ExecutionContext.OF_EXCEPTION_MESSAGE, task -> {
+      hops.incrementAndGet();
+      single.execute(task);
+    }).withPropagation(trace);
+    TRACE.set("trace-3");
+    OrFuture<Integer, String> future = counting.future(() -> Good.<Integer, String>of(0));
+    for (int i = 0; i < 9; i++) future = future.flatMap(n -> counting.future(() -> Good.of(n + 1)));
+    assertEquals(Integer.valueOf(9), future.get(Duration.ofSeconds(10)).get());
+    // every hop ran before this task, with its state set and then reset
+    assertNull(single.submit(TRACE::get).get(10, TimeUnit.SECONDS));
+    assertEquals(2 * hops.get(), restores.get());
+  }
+
+  @Test
+  public void batchesRestoreOnce() throws Exception {
+    ExecutionContext<String> batching =
+      ExecutionContext.batching(ExecutionContext.OF_EXCEPTION_MESSAGE, single).withPropagation(trace);
+    TRACE.set("trace-4");
+    OrPromise<Integer, String> promise = batching.promise();
+    List<OrFuture<String, String>> mapped = List.range(0, 100).map(i -> promise.future().map(v -> TRACE.get()));
+    promise.success(1);
+    for (OrFuture<String, String> future : mapped) assertEquals("trace-4", future.get(Duration.ofSeconds(10)).get());
+    // set and reset, once for the whole batch of callbacks
+    assertEquals(2, restores.get());
+  }
+
+  @Test
+  public void sameThreadContextNeedsNoRestore() throws Exception {
+    ExecutionContext<String> sameThread = ExecutionContext.sameThread(ExecutionContext.OF_EXCEPTION_MESSAGE).withPropagation(trace);
+    TRACE.set("trace-5");
+    assertEquals("trace-5", sameThread.future(() -> Good.of(TRACE.get())).map(s -> TRACE.get()).get(Duration.ofSeconds(10)).get());
+    assertEquals(0, restores.get());
+  }
+
+  @Test
+  public void propagatorsCompose() throws Exception {
+    ExecutionContext<String> both = ctx.withPropagation(propagator(USER)).withDeadline(Duration.ofHours(1), "expired");
+    TRACE.set("trace-6");
+    USER.set("alice");
+    OrFuture<String, String> future = both.schedule(Duration.ofMillis(5), () -> Good.of(TRACE.get() + "/" + USER.get()));
+    TRACE.remove();
+    USER.remove();
+    assertEquals("trace-6/alice", future.get(Duration.ofSeconds(10)).get());
+  }
+}
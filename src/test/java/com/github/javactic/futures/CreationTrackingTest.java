@@ -0,0 +1,121 @@
+package com.github.javactic.futures;
+
+import com.github.javactic.Good;
+import io.vavr.collection.Seq;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CreationTrackingTest {
+
+  private final ExecutionContext<String> base =
+    ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newCachedThreadPool());
+
+  @Test
+  public void timeoutNamesCreationSite() throws Exception {
+    ExecutionContext<String> ctx = base.withCreationTracking(new CreationTracker(1));
+    OrPromise<Integer, String> promise = ctx.promise();
+    OrFuture<Integer, String> mapped = promise.future().map(i -> i + 1);
+    try {
+      mapped.get(Duration.ofMillis(10));
+      fail();
+    } catch (TimeoutException e) {
+      CreationSite site = (CreationSite) e.getCause();
+      assertEquals("map", site.operator());
+      assertEquals(CreationTrackingTest.class.getName(), site.caller().getClassName());
+      assertEquals("timeoutNamesCreationSite", site.caller().getMethodName());
+      assertTrue(site.getMessage().startsWith("OrFuture created by map at " + CreationTrackingTest.class.getName()));
+    }
+  }
+
+  @Test
+  public void dumpListsPendingFutures() throws Exception {
+    CreationTracker tracker = new CreationTracker(1);
+    ExecutionContext<String> ctx = base.withCreationTracking(tracker);
+    OrPromise<Integer, String> promise = ctx.promise();
+    Thread.sleep(5);
+    OrFuture<Integer, String> done = ctx.future(() -> Good.of(1));
+    done.get(Duration.ofSeconds(10));
+    Seq<CreationSite> pending = tracker.pending();
+    assertEquals(1, pending.size());
+    assertEquals("promise", pending.head().operator());
+    assertTrue(tracker.dump().contains("OrFuture created by promise"));
+    promise.success(1);
+    assertTrue(tracker.pending().isEmpty());
+  }
+
+  @Test
+  public void forgottenFuturesAreDroppedWithoutDump() throws Exception {
+    CreationTracker tracker = new CreationTracker(1);
+    ExecutionContext<String> ctx = base.withCreationTracking(tracker);
+    for (int i = 0; i < 1000; i++) ctx.promise();
+    // sampling a new future drops the forgotten ones
+    for (int i = 0; i < 100 && tracker.tracked() > 1; i++) {
+      System.gc();
+      Thread.sleep(10);
+      ctx.promise();
+    }
+    assertTrue(tracker.tracked() <= 1);
+  }
+
+  @Test
+  public void oldestFirst() throws Exception {
+    CreationTracker tracker = new CreationTracker(1);
+    ExecutionContext<String> ctx = base.withCreationTracking(tracker);
+    OrPromise<Integer, String> first = ctx.promise();
+    Thread.sleep(5);
+    OrFuture<Integer, String> second = first.future().recover(bad -> 0);
+    Seq<CreationSite> pending = tracker.pending();
+    assertEquals("promise", pending.get(0).operator());
+    assertEquals("recover", pending.get(1).operator());
+    first.success(1);
+    assertEquals(Integer.valueOf(1), second.get(Duration.ofSeconds(10)).get());
+  }
+
+  @Test
+  public void samplingRate() throws Exception {
+    CreationTracker none = new CreationTracker(0);
+    ExecutionContext<String> ctx = base.withCreationTracking(none);
+    OrPromise<Integer, String> promise = ctx.promise();
+    assertTrue(none.pending().isEmpty());
+    try {
+      promise.future().get(Duration.ofMillis(1));
+      fail();
+    } catch (TimeoutException e) {
+      assertNull(e.getCause());
+    }
+    CreationTracker some = new CreationTracker(0.5);
+    ExecutionContext<String> sampled = base.withCreationTracking(some);
+    List<OrPromise<Integer, String>> promises = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) promises.add(sampled.promise());
+    int count = some.pending().size();
+    assertTrue(count > 300 && count < 700);
+    assertEquals(1000, promises.size());
+  }
+
+  @Test
+  public void forgottenFuturesAreDropped() throws Exception {
+    CreationTracker tracker = new CreationTracker(1);
+    ExecutionContext<String> ctx = base.withCreationTracking(tracker);
+    ctx.promise();
+    for (int i = 0; i < 100 && !tracker.pending().isEmpty(); i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertTrue(tracker.pending().isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void samplingRateMustBeAShare() {
+    new CreationTracker(1.5);
+  }
+}
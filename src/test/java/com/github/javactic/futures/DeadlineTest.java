@@ -0,0 +1,154 @@
+package com.github.javactic.futures;
+
+import com.github.javactic.Bad;
+import com.github.javactic.Good;
+import com.github.javactic.One;
+import com.github.javactic.Or;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DeadlineTest {
+
+  private static final String EXPIRED = "expired";
+
+  private final ExecutionContext<String> ctx =
+    ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newCachedThreadPool());
+
+  @Test
+  public void noDeadline() {
+    assertTrue(ctx.timeLeft().isEmpty());
+    assertEquals("ok", ctx.future(() -> Good.of("ok")).getUnsafe().get());
+  }
+
+  @Test
+  public void timeLeft() {
+    ExecutionContext<String> deadline = ctx.withDeadline(Duration.ofHours(1), EXPIRED);
+    Duration left = deadline.timeLeft().get();
+    assertTrue(left.compareTo(Duration.ofHours(1)) <= 0);
+    assertTrue(left.compareTo(Duration.ofMinutes(59)) > 0);
+    assertEquals(Duration.ZERO, ctx.withDeadline(Duration.ofMillis(-5), EXPIRED).timeLeft().get());
+    assertTrue(ctx.withDeadline(Duration.ofSeconds(Long.MAX_VALUE), EXPIRED).timeLeft().get().compareTo(left) > 0);
+  }
+
+  @Test
+  public void earlierDeadlineIsKept() {
+    ExecutionContext<String> outer = ctx.withDeadline(Duration.ofSeconds(1), EXPIRED);
+    ExecutionContext<String> inner = outer.withDeadline(Duration.ofHours(1), "inner");
+    assertTrue(inner.timeLeft().get().compareTo(Duration.ofSeconds(1)) <= 0);
+    ExecutionContext<String> expired = outer.withDeadline(Duration.ZERO, "inner");
+    assertEquals("inner", expired.future(() -> Good.of("late")).getUnsafe().getBad());
+  }
+
+  @Test
+  public void expiredFutureSchedulesNothing() {
+    AtomicBoolean ran = new AtomicBoolean();
+    ExecutionContext<String> expired = ctx.withDeadline(Duration.ZERO, EXPIRED);
+    OrFuture<String, String> future = expired.future(() -> {
+      ran.set(true);
+      return Good.of("late");
+    });
+    assertTrue(future.isCompleted());
+    assertEquals(EXPIRED, future.getUnsafe().getBad());
+    assertEquals(EXPIRED, expired.schedule(Duration.ofMillis(1), () -> Good.of("late")).getUnsafe().getBad());
+    assertFalse(ran.get());
+  }
+
+  @Test
+  public void queuedTaskSkippedPastDeadline() throws Exception {
+    ExecutorService single = Executors.newSingleThreadExecutor();
+    ExecutionContext<String> deadline =
+      ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, single).withDeadline(Duration.ofMillis(50), EXPIRED);
+    CountDownLatch blocker = new CountDownLatch(1);
+    deadline.future(() -> {
+      blocker.await();
+      return Good.of("first");
+    });
+    AtomicBoolean ran = new AtomicBoolean();
+    OrFuture<String, String> second = deadline.future(() -> {
+      ran.set(true);
+      return Good.of("second");
+    });
+    Thread.sleep(100);
+    blocker.countDown();
+    assertEquals(EXPIRED, second.get(Duration.ofSeconds(10)).getBad());
+    assertFalse(ran.get());
+    single.shutdown();
+  }
+
+  @Test
+  public void scheduleCompletesAtDeadline() throws Exception {
+    ExecutionContext<String> deadline = ctx.withDeadline(Duration.ofMillis(20), EXPIRED);
+    OrFuture<String, String> future = deadline.schedule(Duration.ofHours(1), () -> Good.of("late"));
+    assertEquals(EXPIRED, future.get(Duration.ofSeconds(10)).getBad());
+  }
+
+  @Test
+  public void flatMapStageSkippedPastDeadline() throws Exception {
+    ExecutionContext<String> deadline = ctx.withDeadline(Duration.ofMillis(50), EXPIRED);
+    CountDownLatch blocker = new CountDownLatch(1);
+    AtomicBoolean applied = new AtomicBoolean();
+    OrFuture<Integer, String> future = deadline.future(() -> {
+      blocker.await();
+      return Good.<String, String>of("slow");
+    })
+      .map(String::length)
+      .flatMap(i -> {
+        applied.set(true);
+        return ctx.goodFuture(i);
+      });
+    Thread.sleep(100);
+    blocker.countDown();
+    assertEquals(EXPIRED, future.get(Duration.ofSeconds(10)).getBad());
+    assertFalse(applied.get());
+  }
+
+  @Test
+  public void stagesSeeTimeLeft() throws Exception {
+    ExecutionContext<String> deadline = ctx.withDeadline(Duration.ofSeconds(10), EXPIRED);
+    OrFuture<Duration, String> left = deadline.future(() -> Good.<String, String>of("a"))
+      .flatMap(s -> deadline.future(() -> Good.of(deadline.timeLeft().get())));
+    Or<Duration, String> or = left.get(Duration.ofSeconds(10));
+    assertTrue(or.get().compareTo(Duration.ZERO) > 0);
+    assertTrue(or.get().compareTo(Duration.ofSeconds(10)) <= 0);
+  }
+
+  @Test
+  public void withAttachesDeadline() throws Exception {
+    OrPromise<String, String> promise = ctx.promise();
+    AtomicBoolean applied = new AtomicBoolean();
+    OrFuture<String, String> future = promise.future()
+      .with(ctx.withDeadline(Duration.ofMillis(10), EXPIRED))
+      .flatMap(s -> {
+        applied.set(true);
+        return ctx.goodFuture(s);
+      });
+    Thread.sleep(50);
+    promise.success("late");
+    assertEquals(EXPIRED, future.get(Duration.ofSeconds(10)).getBad());
+    assertFalse(applied.get());
+  }
+
+  @Test
+  public void badMappedStagesAreNotSkipped() throws Exception {
+    ExecutionContext<String> deadline = ctx.withDeadline(Duration.ZERO, EXPIRED);
+    OrFuture<String, Integer> future = deadline.<String, Integer>goodFuture("a")
+      .transformWith(or -> ctx.<String, Integer>goodFuture("b"));
+    assertEquals("b", future.get(Duration.ofSeconds(10)).get());
+  }
+
+  @Test
+  public void accumulatingKeepsDeadline() throws Exception {
+    ExecutionContext<One<String>> accumulating = ctx.withDeadline(Duration.ZERO, EXPIRED).accumulating();
+    Or<String, One<String>> or = accumulating.future(() -> Bad.<String, One<String>>of(One.of("bad"))).get(Duration.ofSeconds(10));
+    assertEquals(One.of(EXPIRED), or.getBad());
+  }
+}
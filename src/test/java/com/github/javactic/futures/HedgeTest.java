@@ -0,0 +1,100 @@
+package com.github.javactic.futures;
+
+import com.github.javactic.Bad;
+import com.github.javactic.Every;
+import com.github.javactic.Good;
+import com.github.javactic.Or;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HedgeTest {
+
+  private final ExecutionContext<String> ctx =
+    ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newCachedThreadPool());
+
+  @Test
+  public void fastAttemptIsNotHedged() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+    OrFuture<Integer, Every<String>> future = ctx.hedge(Duration.ofMillis(50), () -> Good.of(attempts.incrementAndGet()), 3);
+    assertEquals(Integer.valueOf(1), future.get(Duration.ofSeconds(10)).get());
+    Thread.sleep(150);
+    assertEquals(1, attempts.get());
+  }
+
+  @Test
+  public void slowAttemptIsHedged() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+    CountDownLatch interrupted = new CountDownLatch(1);
+    OrFuture<Integer, Every<String>> future = ctx.hedge(Duration.ofMillis(20), () -> {
+      int attempt = attempts.incrementAndGet();
+      if (attempt == 1) {
+        try {
+          Thread.sleep(10_000);
+        } catch (InterruptedException e) {
+          interrupted.countDown();
+        }
+      }
+      return Good.of(attempt);
+    }, 3);
+    assertEquals(Integer.valueOf(2), future.get(Duration.ofSeconds(10)).get());
+    // the slow attempt lost and nothing else needed it
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    assertEquals(2, attempts.get());
+  }
+
+  @Test
+  public void allAttemptsFail() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+    // failures start the next attempt without waiting for the delay
+    OrFuture<Integer, Every<String>> future =
+      ctx.hedge(Duration.ofHours(1), () -> Bad.of("bad" + attempts.incrementAndGet()), 3);
+    Or<Integer, Every<String>> or = future.get(Duration.ofSeconds(10));
+    assertEquals(Every.of("bad1", "bad2", "bad3"), or.getBad());
+  }
+
+  @Test
+  public void goodAfterBad() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+    OrFuture<Integer, Every<String>> future = ctx.hedge(Duration.ofHours(1), () -> {
+      int attempt = attempts.incrementAndGet();
+      return attempt < 3 ? Bad.of("bad") : Good.of(attempt);
+    }, 5);
+    assertEquals(Integer.valueOf(3), future.get(Duration.ofSeconds(10)).get());
+    assertEquals(3, attempts.get());
+  }
+
+  @Test
+  public void cancelStopsAttempts() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    OrFuture<Integer, Every<String>> future = ctx.hedge(Duration.ofMillis(50), () -> {
+      attempts.incrementAndGet();
+      started.countDown();
+      try {
+        Thread.sleep(10_000);
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+      return Good.of(0);
+    }, 3);
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    assertTrue(future.cancel(Every.of("cancelled")));
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    Thread.sleep(150);
+    assertEquals(1, attempts.get());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void atLeastOneAttempt() {
+    ctx.hedge(Duration.ofMillis(50), () -> Good.of(1), 0);
+  }
+}
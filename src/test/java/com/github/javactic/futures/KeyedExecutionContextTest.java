@@ -0,0 +1,83 @@
+package com.github.javactic.futures;
+
+import com.github.javactic.Good;
+import com.github.javactic.Or;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class KeyedExecutionContextTest {
+
+  private final ExecutorService pool = Executors.newFixedThreadPool(8);
+  private final KeyedExecutionContext<String> keyed = ExecutionContext.keyed(ExecutionContext.OF_EXCEPTION_MESSAGE, pool, 16);
+
+  @Test
+  public void sameKeySameContext() {
+    assertEquals(16, keyed.stripes());
+    assertSame(keyed.forKey("account-1"), keyed.forKey("account-1"));
+    assertSame(keyed.forKey(42L), keyed.forKey(42L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void stripesMustBePositive() {
+    ExecutionContext.keyed(ExecutionContext.OF_EXCEPTION_MESSAGE, pool, 0);
+  }
+
+  @Test
+  public void tasksAndCallbacksOfAKeyRunInOrder() throws Exception {
+    int keys = 1000;
+    int perKey = 50;
+    List<List<Integer>> seen = new ArrayList<>();
+    for (int k = 0; k < keys; k++) seen.add(new ArrayList<>());
+    List<OrFuture<Integer, String>> futures = new ArrayList<>();
+    for (int i = 0; i < perKey; i++) {
+      for (int k = 0; k < keys; k++) {
+        // not thread-safe on purpose, only one task of a key runs at a time
+        List<Integer> list = seen.get(k);
+        int value = i;
+        futures.add(keyed.forKey("account-" + k)
+          .future(() -> {
+            list.add(2 * value);
+            return Good.<Integer, String>of(value);
+          })
+          .map(v -> {
+            list.add(2 * v + 1);
+            return v;
+          }));
+      }
+    }
+    for (OrFuture<Integer, String> future : futures) future.get(Duration.ofSeconds(30));
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    for (List<Integer> list : seen) {
+      assertEquals(2 * perKey, list.size());
+      for (int i = 0; i < perKey; i++) assertTrue(list.indexOf(2 * i) < list.indexOf(2 * i + 1));
+      for (int i = 1; i < perKey; i++) assertTrue(list.indexOf(2 * i - 2) < list.indexOf(2 * i));
+    }
+  }
+
+  @Test
+  public void differentStripesRunInParallel() throws Exception {
+    int other = 1;
+    while (keyed.forKey(other) == keyed.forKey(0)) other++;
+    assertNotSame(keyed.forKey(0), keyed.forKey(other));
+    CyclicBarrier barrier = new CyclicBarrier(2);
+    OrFuture<Integer, String> first = keyed.forKey(0).future(() -> Good.of(barrier.await(10, TimeUnit.SECONDS)));
+    OrFuture<Integer, String> second = keyed.forKey(other).future(() -> Good.of(barrier.await(10, TimeUnit.SECONDS)));
+    Or<Integer, String> a = first.get(Duration.ofSeconds(30));
+    Or<Integer, String> b = second.get(Duration.ofSeconds(30));
+    assertTrue(a.isGood());
+    assertTrue(b.isGood());
+  }
+}
@@ -0,0 +1,113 @@
+package com.github.javactic.futures;
+
+import com.github.javactic.Bad;
+import com.github.javactic.Good;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsTest {
+
+  private final InMemoryMetrics metrics = new InMemoryMetrics();
+  private final ExecutionContext<String> ctx =
+    ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newCachedThreadPool()).withMetrics(metrics);
+
+  @Test
+  public void countsCompletions() throws Exception {
+    ctx.future(() -> Good.of(1)).map(i -> i + 1).get(Duration.ofSeconds(10));
+    ctx.future(() -> Bad.of("bad")).get(Duration.ofSeconds(10));
+    ctx.goodFuture(1);
+    waitUntilSettled();
+    assertEquals(3, metrics.goodCompletions());
+    assertEquals(1, metrics.badCompletions());
+    assertEquals(0, metrics.pendingFutures());
+    assertEquals(2, metrics.tasks());
+    assertEquals(1, metrics.callbackDispatches());
+  }
+
+  @Test
+  public void pendingGauge() throws Exception {
+    OrPromise<Integer, String> promise = ctx.promise();
+    OrFuture<Integer, String> mapped = promise.future().map(i -> i * 2);
+    assertEquals(2, metrics.pendingFutures());
+    promise.success(21);
+    assertEquals(Integer.valueOf(42), mapped.get(Duration.ofSeconds(10)).get());
+    waitUntilSettled();
+    assertEquals(0, metrics.pendingFutures());
+  }
+
+  @Test
+  public void mergedFuturesAreNotPending() throws Exception {
+    OrFuture<Integer, String> loop = ctx.goodFuture(0);
+    for (int i = 0; i < 100; i++) loop = loop.flatMap(n -> ctx.future(() -> Good.of(n + 1)));
+    assertEquals(Integer.valueOf(100), loop.get(Duration.ofSeconds(10)).get());
+    waitUntilSettled();
+    assertEquals(0, metrics.pendingFutures());
+  }
+
+  @Test
+  public void queueAndExecutionTime() throws Exception {
+    ExecutorService single = Executors.newSingleThreadExecutor();
+    InMemoryMetrics timed = new InMemoryMetrics();
+    ExecutionContext<String> context = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, single).withMetrics(timed);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch blocker = new CountDownLatch(1);
+    context.future(() -> {
+      started.countDown();
+      blocker.await();
+      return Good.of(1);
+    });
+    OrFuture<Integer, String> queued = context.future(() -> {
+      Thread.sleep(20);
+      return Good.of(2);
+    });
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    Thread.sleep(50);
+    blocker.countDown();
+    queued.get(Duration.ofSeconds(10));
+    single.shutdown();
+    assertTrue(single.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(2, timed.tasks());
+    assertTrue(timed.queueTime().max().compareTo(Duration.ofMillis(50)) >= 0);
+    assertTrue(timed.executionTime().max().compareTo(Duration.ofMillis(50)) >= 0);
+    assertTrue(timed.executionTime().percentile(0).compareTo(Duration.ofMillis(20)) >= 0);
+  }
+
+  @Test
+  public void derivedContextsKeepReporting() throws Exception {
+    ctx.withDeadline(Duration.ofHours(1), "expired").accumulating().future(() -> Good.of(1)).get(Duration.ofSeconds(10));
+    waitUntilSettled();
+    assertEquals(1, metrics.tasks());
+    assertEquals(1, metrics.goodCompletions());
+  }
+
+  @Test
+  public void histogramError() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long v = 1; v <= 1_000_000; v++) histogram.record(v);
+    assertEquals(1_000_000, histogram.count());
+    long p50 = histogram.percentile(50).toNanos();
+    assertTrue(p50 >= 500_000 && p50 <= 500_000 * 17 / 16);
+    long max = histogram.max().toNanos();
+    assertTrue(max >= 1_000_000 && max <= 1_000_000 * 17 / 16);
+    assertEquals(Duration.ofNanos(500_000), histogram.mean());
+    histogram.record(Long.MAX_VALUE);
+    assertEquals(Long.MAX_VALUE, histogram.max().toNanos());
+    for (int i = 0; i < 959; i++) assertTrue(LatencyHistogram.highestValue(i) < LatencyHistogram.highestValue(i + 1));
+    for (long v : new long[]{0, 15, 16, 17, 31, 32, 1000, Long.MAX_VALUE}) {
+      assertTrue(LatencyHistogram.highestValue(LatencyHistogram.index(v)) >= v);
+    }
+  }
+
+  private void waitUntilSettled() throws InterruptedException {
+    // callbacks completing derived futures may still be running
+    for (int i = 0; i < 1000 && metrics.pendingFutures() != 0; i++) Thread.sleep(1);
+  }
+}
@@ -0,0 +1,154 @@
+package com.github.javactic.futures;
+
+import com.github.javactic.Bad;
+import com.github.javactic.Good;
+import com.github.javactic.Or;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class OrFutureCacheTest {
+
+  private final ExecutionContext<String> ctx =
+    ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newCachedThreadPool());
+
+  @Test
+  public void concurrentCallersShareOneLoad() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    OrFutureCache<String, Integer, String> cache = ctx.cache(key -> {
+      loads.incrementAndGet();
+      release.await();
+      return Good.of(key.length());
+    }, 100, Duration.ofHours(1), true);
+    List<OrFuture<Integer, String>> futures = new ArrayList<>();
+    for (int i = 0; i < 100; i++) futures.add(cache.get("key"));
+    release.countDown();
+    for (OrFuture<Integer, String> future : futures) {
+      assertSame(futures.get(0), future);
+      assertEquals(Integer.valueOf(3), future.get(Duration.ofSeconds(10)).get());
+    }
+    assertEquals(1, loads.get());
+    OrFutureCache.Stats stats = cache.stats();
+    assertEquals(1, stats.misses());
+    assertEquals(99, stats.hits());
+    assertEquals(1, stats.goodLoads());
+    assertEquals(0.99, stats.hitRate(), 1e-9);
+  }
+
+  @Test
+  public void badsAreNotCachedUnlessAsked() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    OrFutureCache<String, Integer, String> cache =
+      ctx.cache(key -> Bad.<Integer, String>of("bad" + loads.incrementAndGet()), 100, Duration.ofHours(1), false);
+    assertEquals("bad1", cache.get("a").get(Duration.ofSeconds(10)).getBad());
+    assertEquals("bad2", cache.get("a").get(Duration.ofSeconds(10)).getBad());
+    assertEquals(2, cache.stats().badLoads());
+    OrFutureCache<String, Integer, String> caching =
+      ctx.cache(key -> Bad.<Integer, String>of("bad" + loads.incrementAndGet()), 100, Duration.ofHours(1), true);
+    assertEquals("bad3", caching.get("a").get(Duration.ofSeconds(10)).getBad());
+    assertEquals("bad3", caching.get("a").get(Duration.ofSeconds(10)).getBad());
+  }
+
+  @Test
+  public void thrownExceptionsAreConverted() throws Exception {
+    OrFutureCache<String, Integer, String> cache = ctx.cache(key -> {
+      throw new IllegalStateException("boom");
+    }, 100, Duration.ofHours(1), false);
+    assertEquals("boom", cache.get("a").get(Duration.ofSeconds(10)).getBad());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void expiredValuesAreReloaded() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    OrFutureCache<String, Integer, String> cache =
+      ctx.cache(key -> Good.<Integer, String>of(loads.incrementAndGet()), 100, Duration.ofMillis(20), true);
+    assertEquals(Integer.valueOf(1), cache.get("a").get(Duration.ofSeconds(10)).get());
+    assertEquals(Integer.valueOf(1), cache.get("a").get(Duration.ofSeconds(10)).get());
+    Thread.sleep(50);
+    assertEquals(Integer.valueOf(2), cache.get("a").get(Duration.ofSeconds(10)).get());
+    assertEquals(1, cache.stats().evictions());
+  }
+
+  @Test
+  public void oldestEntriesAreEvictedFirst() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    OrFutureCache<Integer, Integer, String> cache =
+      ctx.cache(key -> Good.<Integer, String>of(loads.incrementAndGet()), 2, Duration.ofHours(1), true);
+    for (int key = 0; key < 3; key++) cache.get(key).get(Duration.ofSeconds(10));
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.stats().evictions());
+    cache.get(2).get(Duration.ofSeconds(10));
+    assertEquals(3, loads.get());
+    assertEquals(Integer.valueOf(4), cache.get(0).get(Duration.ofSeconds(10)).get());
+  }
+
+  @Test
+  public void loadsInProgressAreNotEvicted() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    OrFutureCache<Integer, Integer, String> cache = ctx.cache(key -> {
+      loads.incrementAndGet();
+      if (key == 0) release.await();
+      return Good.of(key);
+    }, 1, Duration.ofHours(1), true);
+    OrFuture<Integer, String> slow = cache.get(0);
+    cache.get(1).get(Duration.ofSeconds(10));
+    cache.get(2).get(Duration.ofSeconds(10));
+    // the load of 0 is still shared
+    assertSame(slow, cache.get(0));
+    release.countDown();
+    assertEquals(Integer.valueOf(0), slow.get(Duration.ofSeconds(10)).get());
+    assertEquals(3, loads.get());
+  }
+
+  @Test
+  public void invalidate() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    OrFutureCache<String, Integer, String> cache =
+      ctx.cache(key -> Good.<Integer, String>of(loads.incrementAndGet()), 100, Duration.ofHours(1), true);
+    cache.get("a").get(Duration.ofSeconds(10));
+    cache.invalidate("a");
+    assertEquals(Integer.valueOf(2), cache.get("a").get(Duration.ofSeconds(10)).get());
+    cache.get("b").get(Duration.ofSeconds(10));
+    cache.invalidateAll();
+    assertEquals(0, cache.size());
+    assertEquals(Integer.valueOf(4), cache.get("b").get(Duration.ofSeconds(10)).get());
+  }
+
+  @Test
+  public void cancelAbandonsLoad() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    OrFutureCache<String, Integer, String> cache = ctx.cache(key -> {
+      started.countDown();
+      try {
+        Thread.sleep(10_000);
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+      return Good.of(1);
+    }, 100, Duration.ofHours(1), false);
+    OrFuture<Integer, String> future = cache.get("a");
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    assertTrue(future.cancel("cancelled"));
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    assertEquals(0, cache.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void maximumSizeMustBePositive() {
+    ctx.cache(key -> Good.of(key), 0, Duration.ofHours(1), true);
+  }
+}
@@ -1,8 +1,10 @@
 package com.github.javactic.futures;
 
 import com.github.javactic.Bad;
+import com.github.javactic.Fail;
 import com.github.javactic.Good;
 import com.github.javactic.Or;
+import com.github.javactic.Pass;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.experimental.theories.DataPoints;
@@ -10,10 +12,23 @@ import org.junit.experimental.theories.Theories;
 import org.junit.experimental.theories.Theory;
 import org.junit.runner.RunWith;
 
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(Theories.class)
 public class OrFutureImplTest {
@@ -85,5 +100,295 @@ public class OrFutureImplTest {
     p.complete(Or.good(""));
     Assert.assertTrue(future.getOption().isDefined());
   }
-  
+
+  @Theory
+  public void concurrentCompletions(Executor es) throws Exception {
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, es);
+    int threads = 8;
+    ExecutorService racers = Executors.newFixedThreadPool(threads);
+    try {
+      for (int round = 0; round < 200; round++) {
+        OrFutureImpl<Integer, String> f = new OrFutureImpl<>(ctx);
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        AtomicInteger winners = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+          int value = i;
+          racers.execute(() -> {
+            try {
+              barrier.await();
+              if (f.tryComplete(Good.of(value))) winners.incrementAndGet();
+            } catch (Exception e) {
+              throw new RuntimeException(e);
+            } finally {
+              done.countDown();
+            }
+          });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(1, winners.get());
+        assertTrue(f.isCompleted());
+      }
+    } finally {
+      racers.shutdownNow();
+    }
+  }
+
+  @Theory
+  public void concurrentRegistrations(Executor es) throws Exception {
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, es);
+    int threads = 8;
+    int perThread = 500;
+    ExecutorService registrars = Executors.newFixedThreadPool(threads + 1);
+    try {
+      for (int round = 0; round < 20; round++) {
+        OrFutureImpl<String, String> f = new OrFutureImpl<>(ctx);
+        AtomicIntegerArray calls = new AtomicIntegerArray(threads * perThread);
+        CountDownLatch executed = new CountDownLatch(threads * perThread);
+        CyclicBarrier barrier = new CyclicBarrier(threads + 1);
+        for (int t = 0; t < threads; t++) {
+          int offset = t * perThread;
+          registrars.execute(() -> {
+            try {
+              barrier.await();
+            } catch (Exception e) {
+              throw new RuntimeException(e);
+            }
+            for (int i = 0; i < perThread; i++) {
+              int slot = offset + i;
+              f.onComplete(or -> {
+                calls.incrementAndGet(slot);
+                executed.countDown();
+              });
+            }
+          });
+        }
+        registrars.execute(() -> {
+          try {
+            barrier.await();
+          } catch (Exception e) {
+            throw new RuntimeException(e);
+          }
+          f.complete(Good.of("done"));
+        });
+        assertTrue(executed.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < calls.length(); i++) {
+          assertEquals("callback " + i + " called more than once", 1, calls.get(i));
+        }
+      }
+    } finally {
+      registrars.shutdownNow();
+    }
+  }
+
+  @Test
+  public void blockingGetWakesUp() throws Exception {
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newSingleThreadExecutor());
+    OrFutureImpl<String, String> f = new OrFutureImpl<>(ctx);
+    try {
+      f.get(Duration.ofMillis(10));
+      Assert.fail("should time out");
+    } catch (TimeoutException e) {
+      // expected
+    }
+    assertEquals(FAIL, f.get(Duration.ofMillis(10), FAIL).getBad());
+    Executors.newSingleThreadScheduledExecutor().schedule(() -> f.complete(Good.of("late")), 50, TimeUnit.MILLISECONDS);
+    assertEquals("late", f.get(Duration.ofSeconds(10)).get());
+    assertEquals("late", f.getUnsafe().get());
+  }
+
+  @Test
+  public void getHasNanosecondPrecision() throws Exception {
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newSingleThreadExecutor());
+    OrFutureImpl<String, String> f = new OrFutureImpl<>(ctx);
+    // used to be truncated to zero milliseconds
+    long start = System.nanoTime();
+    assertEquals(FAIL, f.get(Duration.ofNanos(900_000), FAIL).getBad());
+    assertTrue(System.nanoTime() - start >= 900_000);
+    // used to overflow
+    Executors.newSingleThreadScheduledExecutor().schedule(() -> f.complete(Good.of("late")), 50, TimeUnit.MILLISECONDS);
+    assertEquals("late", f.get(Duration.ofSeconds(Long.MAX_VALUE)).get());
+  }
+
+  @Test
+  public void timedOutGetDoesNotKeepFutureAlive() throws Exception {
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newSingleThreadExecutor());
+    CountDownLatch abandoned = new CountDownLatch(1);
+    OrFutureImpl<String, String> f = new OrFutureImpl<String, String>(ctx) {
+      @Override
+      void abandoned() {
+        abandoned.countDown();
+      }
+    };
+    f.get(Duration.ofMillis(1), FAIL);
+    f.release();
+    assertTrue(abandoned.await(10, TimeUnit.SECONDS));
+    // polling a pending future does not grow its callbacks
+    f.onComplete(or -> {});
+    for (int i = 0; i < 1000; i++) f.get(Duration.ofNanos(1), FAIL);
+    assertEquals(1, f.callbackCount());
+  }
+
+  @Test
+  public void blockingGetOnVirtualThreads() throws Exception {
+    ExecutionContext<String> ctx;
+    try {
+      ctx = ExecutionContext.ofVirtualThreads(ExecutionContext.OF_EXCEPTION_MESSAGE);
+    } catch (UnsupportedOperationException e) {
+      assertFalse(VirtualThreads.factory().isDefined());
+      return;
+    }
+    OrPromise<Integer, String> gate = ctx.promise();
+    int n = 10_000;
+    List<OrFuture<Integer, String>> waiting = new ArrayList<>();
+    for (int i = 0; i < n; i++) waiting.add(ctx.future(() -> gate.future().get(Duration.ofSeconds(30))));
+    gate.success(1);
+    int sum = 0;
+    for (OrFuture<Integer, String> f : waiting) sum += f.get(Duration.ofSeconds(30)).get();
+    assertEquals(n, sum);
+  }
+
+  @Test
+  public void recursiveFlatMapRunsInConstantMemory() throws Exception {
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newFixedThreadPool(2));
+    Loop loop = new Loop(ctx, 200_000);
+    OrFuture<Integer, String> result = loop.step(0);
+    assertTrue(loop.halfway.await(60, TimeUnit.SECONDS));
+    // without linking, the first stage would still reach every step through the callbacks
+    for (int i = 0; i < 50 && loop.early.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    Assert.assertNull(loop.early.get());
+    loop.resume.countDown();
+    assertEquals(Integer.valueOf(200_000), result.get(Duration.ofSeconds(60)).get());
+  }
+
+  @Test
+  public void cancelLinkedLoopStopsCurrentStep() throws Exception {
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newFixedThreadPool(2));
+    Loop loop = new Loop(ctx, 100);
+    OrFuture<Integer, String> result = loop.step(0);
+    assertTrue(loop.halfway.await(10, TimeUnit.SECONDS));
+    assertTrue(result.cancel(FAIL));
+    assertTrue(loop.interrupted.await(10, TimeUnit.SECONDS));
+    assertEquals(FAIL, result.getUnsafe().getBad());
+  }
+
+  @Test
+  public void cancelMiddleStepOfLinkedLoopStopsCurrentStep() throws Exception {
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newFixedThreadPool(2));
+    Loop loop = new Loop(ctx, 100);
+    loop.middleAt = 20;
+    OrFuture<Integer, String> result = loop.step(0);
+    assertTrue(loop.halfway.await(10, TimeUnit.SECONDS));
+    assertTrue(loop.middle.cancel(FAIL));
+    assertTrue(loop.interrupted.await(10, TimeUnit.SECONDS));
+    assertEquals(FAIL, result.getUnsafe().getBad());
+  }
+
+  @Test
+  public void cancelLeavesSharedInnerStageAlone() throws Exception {
+    // runs the function of the outer stage before it gets cancelled
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Runnable::run);
+    OrPromise<Integer, String> src = ctx.promise();
+    OrFuture<Integer, String> shared = src.future().flatMap(i -> ctx.goodFuture(i + 1));
+    OrFuture<Integer, String> other = shared.map(i -> i * 10);
+    OrFuture<Integer, String> outer = ctx.<Integer, String>goodFuture(0).flatMap(v -> shared);
+    assertTrue(outer.cancel("outer-cancel"));
+    assertEquals("outer-cancel", outer.getUnsafe().getBad());
+    assertFalse(shared.isCompleted());
+    assertFalse(other.isCompleted());
+    src.success(1);
+    assertEquals(Good.of(2), shared.get(Duration.ofSeconds(10)));
+    assertEquals(Good.of(20), other.get(Duration.ofSeconds(10)));
+  }
+
+  /**
+   * An asynchronous loop written with recursive flatMap, which waits halfway through.
+   */
+  private static final class Loop {
+    final ExecutionContext<String> ctx;
+    final int end;
+    final CountDownLatch halfway = new CountDownLatch(1);
+    final CountDownLatch resume = new CountDownLatch(1);
+    final CountDownLatch interrupted = new CountDownLatch(1);
+    volatile WeakReference<OrFuture<Integer, String>> early;
+    volatile int middleAt = -1;
+    volatile OrFuture<Integer, String> middle;
+
+    Loop(ExecutionContext<String> ctx, int end) {
+      this.ctx = ctx;
+      this.end = end;
+    }
+
+    OrFuture<Integer, String> step(int i) {
+      if (i == end) return ctx.goodFuture(i);
+      OrFuture<Integer, String> next = ctx.<Integer>future(() -> {
+        if (i == end / 2) {
+          halfway.countDown();
+          try {
+            resume.await();
+          } catch (InterruptedException e) {
+            interrupted.countDown();
+          }
+        }
+        return Good.of(i + 1);
+      }).flatMap(this::step);
+      if (i == 10) early = new WeakReference<>(next);
+      if (i == middleAt) middle = next;
+      return next;
+    }
+  }
+
+  @Test
+  public void fusedChainRunsInOneTask() throws Exception {
+    AtomicInteger dispatches = new AtomicInteger();
+    Executor pool = Executors.newCachedThreadPool();
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, command -> {
+      dispatches.incrementAndGet();
+      pool.execute(command);
+    });
+    OrPromise<Integer, String> promise = ctx.promise();
+    OrFuture<Integer, String> chained = promise.future()
+      .map(i -> i + 1)
+      .filter(i -> i > 10 ? Pass.instance() : Fail.of(FAIL))
+      .badMap(String::toUpperCase)
+      .recover(bad -> bad.length());
+    OrFuture<Integer, String> observed = chained.andThen(or -> {});
+    promise.success(1);
+    assertEquals(Integer.valueOf(FAIL.length()), observed.get(Duration.ofSeconds(10)).get());
+    assertEquals(1, dispatches.get());
+  }
+
+  @Test
+  public void fusedChainKeepsIntermediateValues() throws Exception {
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newSingleThreadExecutor());
+    OrPromise<Integer, String> promise = ctx.promise();
+    OrFuture<Integer, String> first = promise.future().map(i -> i + 1);
+    OrFuture<Integer, String> second = first.map(i -> i * 10);
+    OrFuture<Integer, String> sibling = first.map(i -> -i);
+    promise.success(1);
+    assertEquals(Integer.valueOf(20), second.get(Duration.ofSeconds(10)).get());
+    assertEquals(Integer.valueOf(2), first.get(Duration.ofSeconds(10)).get());
+    assertEquals(Integer.valueOf(-2), sibling.get(Duration.ofSeconds(10)).get());
+  }
+
+  @Test
+  public void completedFutureTransformsInPlace() throws Exception {
+    AtomicInteger dispatches = new AtomicInteger();
+    ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, command -> {
+      dispatches.incrementAndGet();
+      command.run();
+    });
+    OrFuture<Integer, String> mapped = ctx.<Integer, String>goodFuture(1)
+      .map(i -> i + 1)
+      .filter(i -> i > 10 ? Pass.instance() : Fail.of(FAIL))
+      .recover(String::length);
+    assertTrue(mapped.isCompleted());
+    assertEquals(Integer.valueOf(FAIL.length()), mapped.getOption().get().get());
+    assertEquals(FAIL, ctx.<Integer, String>badFuture(FAIL).map(i -> i + 1).getOption().get().getBad());
+    assertEquals(0, dispatches.get());
+  }
+
 }
@@ -19,9 +19,15 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(Theories.class)
@@ -215,4 +221,102 @@ public class OrFutureTest {
       throw (T)throwable;
     }
   }
+  @Test
+  public void foreignFutureDefaults() throws Exception {
+    OrPromise<Integer, String> promise = CTX.promise();
+    OrFuture<Integer, String> foreign = new Foreign<>(promise.future());
+    assertFalse(foreign.cancel(FAIL));
+    assertEquals(Bad.of("timeout"), foreign.within(Duration.ofMillis(20), "timeout").get(Duration.ofSeconds(10)));
+    OrFuture<Integer, String> within = foreign.within(Duration.ofHours(1), "timeout");
+    java.util.concurrent.CompletableFuture<Or<Integer, String>> stage = foreign.toCompletionStage(FAIL).toCompletableFuture();
+    promise.success(1);
+    assertEquals(Good.of(1), within.get(Duration.ofSeconds(10)));
+    assertEquals(Good.of(1), stage.get(10, TimeUnit.SECONDS));
+  }
+
+  /**
+   * An OrFuture implemented outside of this library, only implementing the abstract methods.
+   */
+  private static final class Foreign<G, B> implements OrFuture<G, B> {
+    private final OrFuture<G, B> delegate;
+
+    Foreign(OrFuture<G, B> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public boolean isCompleted() {
+      return delegate.isCompleted();
+    }
+
+    @Override
+    public void onComplete(Consumer<? super Or<G, B>> action) {
+      delegate.onComplete(action);
+    }
+
+    @Override
+    public Option<Or<G, B>> getOption() {
+      return delegate.getOption();
+    }
+
+    @Override
+    public Or<G, B> get(Duration timeout) throws TimeoutException, InterruptedException {
+      return delegate.get(timeout);
+    }
+
+    @Override
+    public Or<G, B> get(Duration timeout, B timeoutBad) throws InterruptedException {
+      return delegate.get(timeout, timeoutBad);
+    }
+
+    @Override
+    public Or<G, B> getUnsafe() throws CompletionException {
+      return delegate.getUnsafe();
+    }
+
+    @Override
+    public OrFuture<G, B> andThen(Consumer<? super Or<G, B>> consumer) {
+      return delegate.andThen(consumer);
+    }
+
+    @Override
+    public OrFuture<G, B> filter(Function<? super G, ? extends Validation<? extends B>> validator) {
+      return delegate.filter(validator);
+    }
+
+    @Override
+    public <H> OrFuture<H, B> flatMap(Function<? super G, ? extends OrFuture<? extends H, ? extends B>> mapper) {
+      return delegate.flatMap(mapper);
+    }
+
+    @Override
+    public OrFuture<G, B> recover(Function<? super B, ? extends G> fn) {
+      return delegate.recover(fn);
+    }
+
+    @Override
+    public <C> OrFuture<G, C> recoverWith(Function<? super B, ? extends OrFuture<? extends G, ? extends C>> fn) {
+      return delegate.recoverWith(fn);
+    }
+
+    @Override
+    public <H, C> OrFuture<H, C> transform(Function<? super Or<? extends G, ? extends B>, ? extends Or<? extends H, ? extends C>> f) {
+      return delegate.transform(f);
+    }
+
+    @Override
+    public <H, C> OrFuture<H, C> transformWith(Function<? super Or<? extends G, ? extends B>, ? extends OrFuture<? extends H, ? extends C>> f) {
+      return delegate.transformWith(f);
+    }
+
+    @Override
+    public <H> OrFuture<Tuple2<G, H>, Every<B>> zip(OrFuture<? extends H, ? extends B> that) {
+      return delegate.zip(that);
+    }
+
+    @Override
+    public <H, X> OrFuture<X, Every<B>> zipWith(OrFuture<? extends H, ? extends B> that, BiFunction<? super G, ? super H, ? extends X> f) {
+      return delegate.zipWith(that, f);
+    }
+  }
 }
@@ -0,0 +1,220 @@
+package com.github.javactic.futures;
+
+import com.github.javactic.Bad;
+import com.github.javactic.Every;
+import com.github.javactic.Good;
+import com.github.javactic.Or;
+import io.vavr.collection.Vector;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OrScopeTest {
+
+  private final ExecutorService pool = Executors.newCachedThreadPool();
+  private final ExecutionContext<String> ctx = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, pool);
+
+  @After
+  public void shutdown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  public void joinsGoodsInForkOrder() throws Exception {
+    try (OrScope<Integer, String> scope = ctx.scope(OrScope.Policy.ACCUMULATE)) {
+      scope.fork(() -> {
+        Thread.sleep(50);
+        return Good.of(1);
+      });
+      scope.fork(() -> Good.of(2));
+      scope.fork(() -> Good.of(3));
+      assertEquals(Vector.of(1, 2, 3), scope.join().get());
+    }
+  }
+
+  @Test
+  public void accumulatesEveryFailure() throws Exception {
+    try (OrScope<Integer, String> scope = ctx.scope(OrScope.Policy.ACCUMULATE)) {
+      scope.fork(() -> {
+        Thread.sleep(50);
+        return Bad.of("first");
+      });
+      OrFuture<Integer, String> good = scope.fork(() -> Good.of(2));
+      scope.fork(() -> {
+        throw new IllegalStateException("third");
+      });
+      assertEquals(Every.of("first", "third"), scope.join().getBad());
+      assertEquals(Integer.valueOf(2), good.getUnsafe().get());
+    }
+  }
+
+  @Test
+  public void failFastCancelsSiblings() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    try (OrScope<Integer, String> scope = ctx.scope(OrScope.Policy.FAIL_FAST)) {
+      OrFuture<Integer, String> slow = scope.fork(() -> {
+        started.countDown();
+        try {
+          Thread.sleep(10_000);
+        } catch (InterruptedException e) {
+          interrupted.countDown();
+        }
+        return Good.of(1);
+      });
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+      scope.fork(() -> Bad.of("boom"));
+      Or<Vector<Integer>, Every<String>> or = scope.join(Duration.ofSeconds(10));
+      assertEquals(Every.of("boom"), or.getBad());
+      assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+      assertTrue(slow.getUnsafe().isBad());
+    }
+  }
+
+  @Test
+  public void failFastReportsFirstFailureWhateverTheCallbackOrder() throws Exception {
+    // the callback of the first failure runs late, the scope must not rely on it
+    AtomicBoolean delayed = new AtomicBoolean();
+    ExecutionContext<String> late = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, command -> {
+      if (command instanceof OrFutureImpl.ActionCallback && delayed.compareAndSet(false, true)) pool.execute(() -> {
+        try {
+          Thread.sleep(300);
+        } catch (InterruptedException e) {
+          return;
+        }
+        command.run();
+      });
+      else pool.execute(command);
+    });
+    try (OrScope<Integer, String> scope = late.scope(OrScope.Policy.FAIL_FAST)) {
+      scope.fork(() -> Bad.of("first"));
+      scope.fork(() -> {
+        Thread.sleep(50);
+        return Bad.of("second");
+      });
+      assertEquals(Every.of("first"), scope.join(Duration.ofSeconds(10)).getBad());
+    }
+  }
+
+  @Test
+  public void manyForksPendingAtOnce() throws Exception {
+    // nothing runs until every task is forked
+    Queue<Runnable> queued = new ConcurrentLinkedQueue<>();
+    AtomicBoolean started = new AtomicBoolean();
+    ExecutionContext<String> queuing = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, command -> {
+      if (started.get()) pool.execute(command);
+      else queued.add(command);
+    });
+    int n = 70_000;
+    try (OrScope<Integer, String> scope = queuing.scope(OrScope.Policy.ACCUMULATE)) {
+      for (int i = 0; i < n; i++) {
+        int value = i;
+        scope.fork(() -> Good.of(value));
+      }
+      started.set(true);
+      queued.forEach(pool::execute);
+      assertEquals(Vector.range(0, n), scope.join(Duration.ofSeconds(60)).get());
+    }
+  }
+
+  @Test
+  public void closeWaitsForTasksToStop() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    AtomicBoolean stopped = new AtomicBoolean();
+    OrFuture<Integer, String> stubborn;
+    try (OrScope<Integer, String> scope = ctx.scope(OrScope.Policy.ACCUMULATE)) {
+      stubborn = scope.fork(() -> {
+        started.countDown();
+        try {
+          Thread.sleep(10_000);
+        } catch (InterruptedException e) {
+          // takes its time to stop
+          long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+          while (System.nanoTime() < end) Thread.yield();
+        }
+        stopped.set(true);
+        return Good.of(1);
+      });
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+    }
+    assertTrue(stopped.get());
+    assertTrue(stubborn.getUnsafe().isBad());
+  }
+
+  @Test
+  public void closeCancelsTasksNotStarted() throws Exception {
+    ExecutorService single = Executors.newSingleThreadExecutor();
+    ExecutionContext<String> one = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, single);
+    CountDownLatch blocker = new CountDownLatch(1);
+    AtomicBoolean ran = new AtomicBoolean();
+    try (OrScope<Integer, String> scope = one.scope(OrScope.Policy.ACCUMULATE)) {
+      scope.fork(() -> {
+        try {
+          blocker.await();
+        } catch (InterruptedException e) {
+          // cancelled by the scope
+        }
+        return Good.of(1);
+      });
+      scope.fork(() -> {
+        ran.set(true);
+        return Good.of(2);
+      });
+    }
+    single.shutdown();
+    assertTrue(single.awaitTermination(10, TimeUnit.SECONDS));
+    assertFalse(ran.get());
+  }
+
+  @Test(expected = TimeoutException.class)
+  public void joinTimesOut() throws Exception {
+    CountDownLatch blocker = new CountDownLatch(1);
+    try (OrScope<Integer, String> scope = ctx.scope(OrScope.Policy.ACCUMULATE)) {
+      scope.fork(() -> {
+        blocker.await();
+        return Good.of(1);
+      });
+      scope.join(Duration.ofMillis(20));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void noForkAfterJoin() throws Exception {
+    try (OrScope<Integer, String> scope = ctx.scope(OrScope.Policy.ACCUMULATE)) {
+      scope.join();
+      scope.fork(() -> Good.of(1));
+    }
+  }
+
+  @Test
+  public void onlyTheOwnerForks() throws Exception {
+    try (OrScope<Integer, String> scope = ctx.scope(OrScope.Policy.ACCUMULATE)) {
+      AtomicReference<Throwable> error = new AtomicReference<>();
+      Thread other = new Thread(() -> {
+        try {
+          scope.fork(() -> Good.of(1));
+        } catch (Throwable t) {
+          error.set(t);
+        }
+      });
+      other.start();
+      other.join();
+      assertTrue(error.get() instanceof IllegalStateException);
+      assertTrue(scope.join().get().isEmpty());
+    }
+  }
+}
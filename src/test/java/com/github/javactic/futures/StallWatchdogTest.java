@@ -0,0 +1,86 @@
+package com.github.javactic.futures;
+
+import com.github.javactic.Good;
+import io.vavr.collection.SortedMap;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class StallWatchdogTest {
+
+  private final BlockingQueue<OrFuture<?, ?>> reported = new LinkedBlockingQueue<>();
+  private final ExecutionContext<String> base =
+    ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newCachedThreadPool());
+
+  @Test
+  public void reportsStalledPromise() throws Exception {
+    StallWatchdog watchdog = new StallWatchdog(Duration.ofMillis(20), (future, age) -> reported.add(future), false);
+    ExecutionContext<String> ctx = base.withWatchdog(watchdog);
+    OrPromise<Integer, String> stalled = ctx.promise();
+    OrPromise<Integer, String> completed = ctx.promise();
+    completed.success(1);
+    assertSame(stalled.future(), reported.poll(10, TimeUnit.SECONDS));
+    assertNull(reported.poll(100, TimeUnit.MILLISECONDS));
+    assertEquals(1, watchdog.stalledCount());
+    // promises are only reported
+    assertTrue(!stalled.future().isCompleted());
+  }
+
+  @Test
+  public void failsStalledTask() throws Exception {
+    StallWatchdog watchdog = new StallWatchdog(Duration.ofMillis(20), (future, age) -> reported.add(future), true);
+    ExecutionContext<String> ctx = base.withWatchdog(watchdog);
+    CountDownLatch release = new CountDownLatch(1);
+    OrFuture<Integer, String> hung = ctx.future(() -> {
+      release.await();
+      return Good.of(1);
+    });
+    assertTrue(hung.get(Duration.ofSeconds(10)).getBad().startsWith("pending for"));
+    assertSame(hung, reported.poll(10, TimeUnit.SECONDS));
+    release.countDown();
+  }
+
+  @Test
+  public void countsByAge() throws Exception {
+    StallWatchdog watchdog = new StallWatchdog(Duration.ofMillis(10), (future, age) -> {}, false);
+    ExecutionContext<String> ctx = base.withWatchdog(watchdog);
+    OrPromise<Integer, String> old = ctx.promise();
+    Thread.sleep(50);
+    OrPromise<Integer, String> young = ctx.promise();
+    OrPromise<Integer, String> fresh = ctx.promise();
+    Thread.sleep(10);
+    SortedMap<Duration, Integer> byAge = watchdog.pendingByAge();
+    assertEquals(3, byAge.values().sum().intValue());
+    assertEquals(Duration.ofMillis(10), byAge.head()._1);
+    assertTrue(byAge.last()._1.compareTo(Duration.ofMillis(40)) >= 0);
+    old.success(1);
+    young.success(1);
+    fresh.success(1);
+    assertTrue(watchdog.pendingByAge().isEmpty());
+  }
+
+  @Test
+  public void forgottenFuturesAreDropped() throws Exception {
+    StallWatchdog watchdog = new StallWatchdog(Duration.ofMillis(100), (future, age) -> reported.add(future), false);
+    ExecutionContext<String> ctx = base.withWatchdog(watchdog);
+    ctx.promise();
+    System.gc();
+    assertNull(reported.poll(300, TimeUnit.MILLISECONDS));
+    assertEquals(0, watchdog.stalledCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void thresholdMustBePositive() {
+    new StallWatchdog(Duration.ZERO, (future, age) -> {}, false);
+  }
+}
@@ -0,0 +1,123 @@
+package com.github.javactic.futures;
+
+import com.github.javactic.Good;
+import com.github.javactic.Or;
+import io.vavr.Tuple0;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimerWheelTest {
+
+  private static final String TIMEOUT = "timeout";
+
+  private final ExecutionContext<String> ctx =
+    ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Executors.newCachedThreadPool());
+
+  @Test
+  public void manyTimeouts() throws Exception {
+    TimerWheel timer = new TimerWheel();
+    int count = 10_000;
+    CountDownLatch expired = new CountDownLatch(count);
+    for (int i = 0; i < count; i++) {
+      timer.schedule(expired::countDown, TimeUnit.MILLISECONDS.toNanos(i % 200));
+    }
+    assertTrue(expired.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void cancelledTimeoutDoesNotRun() throws Exception {
+    TimerWheel timer = new TimerWheel();
+    AtomicBoolean ran = new AtomicBoolean();
+    TimerWheel.Timeout timeout = timer.schedule(() -> ran.set(true), TimeUnit.MILLISECONDS.toNanos(50));
+    assertTrue(timeout.cancel());
+    assertFalse(timeout.cancel());
+    CountDownLatch later = new CountDownLatch(1);
+    timer.schedule(later::countDown, TimeUnit.MILLISECONDS.toNanos(100));
+    assertTrue(later.await(10, TimeUnit.SECONDS));
+    assertFalse(ran.get());
+  }
+
+  @Test
+  public void timeoutDoesNotFireEarly() throws Exception {
+    TimerWheel timer = new TimerWheel();
+    long start = System.nanoTime();
+    CountDownLatch expired = new CountDownLatch(1);
+    timer.schedule(expired::countDown, TimeUnit.MILLISECONDS.toNanos(100));
+    assertTrue(expired.await(10, TimeUnit.SECONDS));
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+  }
+
+  @Test
+  public void contextsShareOneTimerThread() throws Exception {
+    long before = timerThreads();
+    for (int i = 0; i < 200; i++) {
+      ExecutionContext<String> shortLived = ExecutionContext.of(ExecutionContext.OF_EXCEPTION_MESSAGE, Runnable::run);
+      shortLived.<String>delay(Duration.ofMillis(1)).get(Duration.ofSeconds(10));
+    }
+    assertTrue(timerThreads() - before <= 1);
+  }
+
+  private static long timerThreads() {
+    return Thread.getAllStackTraces().keySet().stream().filter(t -> t.getName().equals("javactic-timer")).count();
+  }
+
+  @Test
+  public void withinExpires() throws Exception {
+    OrPromise<String, String> promise = ctx.promise();
+    OrFuture<String, String> within = promise.future().within(Duration.ofMillis(20), TIMEOUT);
+    assertEquals(TIMEOUT, within.get(Duration.ofSeconds(10)).getBad());
+    // a promise is completed by whoever holds it, releasing it does not complete it
+    assertFalse(promise.future().isCompleted());
+  }
+
+  @Test
+  public void withinCompletesInTime() throws Exception {
+    OrFuture<String, String> within = ctx.future(() -> Good.<String, String>of("fast")).within(Duration.ofSeconds(10), TIMEOUT);
+    assertEquals("fast", within.get(Duration.ofSeconds(10)).get());
+  }
+
+  @Test
+  public void withinCancelsTask() throws Exception {
+    CountDownLatch interrupted = new CountDownLatch(1);
+    OrFuture<String, String> slow = ctx.future(() -> {
+      try {
+        Thread.sleep(60_000);
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+      return Good.of("slow");
+    });
+    assertEquals(TIMEOUT, slow.within(Duration.ofMillis(20), TIMEOUT).get(Duration.ofSeconds(10)).getBad());
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void delay() throws Exception {
+    long start = System.nanoTime();
+    Or<Tuple0, String> or = ctx.<String>delay(Duration.ofMillis(50)).get(Duration.ofSeconds(10));
+    assertTrue(or.isGood());
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+  }
+
+  @Test
+  public void schedule() throws Exception {
+    AtomicBoolean ran = new AtomicBoolean();
+    OrFuture<String, String> cancelled = ctx.schedule(Duration.ofMillis(50), () -> {
+      ran.set(true);
+      return Good.of("cancelled");
+    });
+    OrFuture<String, String> scheduled = ctx.schedule(Duration.ofMillis(100), () -> Good.of("scheduled"));
+    assertTrue(cancelled.cancel("stop"));
+    assertEquals("scheduled", scheduled.get(Duration.ofSeconds(10)).get());
+    assertFalse(ran.get());
+  }
+}